@@ -84,7 +84,17 @@ public class Main {
         tileManager = new TileManager();
         tileManager.getTileBackups().removeOldBackups(settings.getInt(Settings.Setting.MAX_BACKUPS));
         barManager.addInputListener(this::userInput);
-        tileManager.addOnInputEvaluatedListener(this::onInputEvaluated);
+        tileManager.addOnInputEvaluatedListener(new TileManager.InputEvaluatedListener() {
+            @Override
+            public void onInputEvaluated(List<Tile> tiles) {
+                Main.this.onInputEvaluated(tiles);
+            }
+
+            @Override
+            public void onInputEvaluationUpdated(List<Tile> tiles) {
+                Main.this.onInputEvaluationUpdated(tiles);
+            }
+        });
 
         final long[] lastCommandInput = {System.currentTimeMillis()};
         GlobalKeyListener keyListener = new GlobalKeyListener();
@@ -247,6 +257,7 @@ public class Main {
         }
         if (lastExecutedTile != null) {
             lastExecutedTile.execute(this);
+            tileManager.tileHasBeenExecuted(lastExecutedTile, currentInput);
             tileManager.save();
             addInputToHistory();
         }
@@ -307,6 +318,7 @@ public class Main {
             barManager.setInputActive(false);
             if (lastExecutedTile != null) {
                 lastExecutedTile.userModifyTile();
+                tileManager.tileHasBeenEdited(lastExecutedTile);
                 tileManager.save();
             }
         }
@@ -318,6 +330,12 @@ public class Main {
         barManager.setTiles(lastTiles, currentResultIndex, tileManager.getCategories());
     }
 
+    private void onInputEvaluationUpdated(List<Tile> tiles) {
+        // the new tiles are appended to the previous ones, so the user keeps the current scroll position
+        lastTiles = tiles;
+        barManager.setTiles(lastTiles, currentResultIndex, tileManager.getCategories());
+    }
+
     private HTTPServer webserver;
 
     public void openSettingsWebServer(boolean openWebpage) {
@@ -347,6 +365,8 @@ public class Main {
     }
 
     public void restartBar() throws URISyntaxException, IOException {
+        // the pending save would otherwise race with the new instance reading the tiles
+        tileManager.flush();
         Util.restartApplication(isWebserverOpen());
     }
 
@@ -517,6 +537,7 @@ public class Main {
                                         default:
                                             break;
                                     }
+                                    tileManager.tileHasBeenEdited(tile);
                                     if (tileManager.isCloudTile(tile)) {
                                         tileManager.cloudTileHasBeenEdited(tile);
                                         tileManager.synchronizeCloudTiles();
@@ -600,7 +621,7 @@ public class Main {
                                             TileGenerator tileGenerator = tileManager.findTileGenerator(generatorId);
                                             if (tileGenerator != null && tileGeneratorGenerator != null) {
                                                 tileGenerator.removeGenerator(tileGeneratorGenerator);
-                                                tileManager.regenerateGeneratedTiles();
+                                                tileManager.regenerateGeneratedTiles(tileGenerator);
                                             }
                                             break;
                                         default:
@@ -839,7 +860,7 @@ public class Main {
         String generatorType = Util.popupDropDown("Generator", "Select the generator type", TileGeneratorGenerator.GENERATOR_TYPES, tileGeneratorGenerator != null ? tileGeneratorGenerator.getType() : null);
 
         if (generatorType != null) {
-            if (generatorType.equals("file")) {
+            if (generatorType.equals("file") || generatorType.equals("file-index")) {
                 File file = Util.pickDirectory();
                 if (file != null) {
                     String filter = Util.popupTextInput("Generator", "Leave empty or enter file extensions", tileGeneratorGenerator != null ? tileGeneratorGenerator.getParam2() : null);
@@ -850,12 +871,12 @@ public class Main {
             }
             if (tileGeneratorGenerator != null) {
                 generator.addGenerator(tileGeneratorGenerator);
-                tileManager.regenerateGeneratedTiles();
+                tileManager.regenerateGeneratedTiles(generator);
                 return tileGeneratorGenerator;
             }
         }
 
-        tileManager.regenerateGeneratedTiles();
+        tileManager.regenerateGeneratedTiles(generator);
         return null;
     }
 
@@ -16,6 +16,8 @@ public class BarManager {
     private final Settings settings;
     private final GlassBar inputGlassBar;
     private final List<GlassBar> resultGlassBars = new ArrayList<>();
+    // what is currently displayed on the result bars, to only update the bars that have changed
+    private final List<DisplayedResult> displayedResults = new ArrayList<>();
     private boolean isInputActive = false;
     private static final Logger LOG = LoggerFactory.getLogger(BarManager.class);
 
@@ -39,10 +41,12 @@ public class BarManager {
                 resultGlassBar.setAllowInput(false);
                 resultGlassBar.prepareUpdateBackground();
                 resultGlassBars.add(resultGlassBar);
+                displayedResults.add(new DisplayedResult());
             }
         } else if (resultGlassBars.size() > amount) {
             for (int i = resultGlassBars.size() - 1; i >= amount && i > 0; i--) {
                 resultGlassBars.remove(i);
+                displayedResults.remove(i);
             }
         }
     }
@@ -52,6 +56,7 @@ public class BarManager {
     public void setInputActive(boolean active) {
         isInputActive = active;
         resultGlassBars.forEach(glassBar -> glassBar.setVisible(false));
+        displayedResults.forEach(DisplayedResult::clear);
         if (active) {
             inputGlassBar.setVisible(false);
             Point absoluteMousePosition = Util.getAbsoluteMousePosition();
@@ -85,18 +90,29 @@ public class BarManager {
             if (!isInputActive) return;
             setAmountResultBars(settings.getInt(Settings.Setting.AMOUNT_RESULTS));
             for (int i = 0; i < resultGlassBars.size(); i++) {
+                final GlassBar resultGlassBar = resultGlassBars.get(i);
+                final DisplayedResult displayed = displayedResults.get(i);
                 if (tiles.size() > i + index) {
-                    resultGlassBars.get(i).setText(tiles.get(i + index).getLabel());
+                    final String label = tiles.get(i + index).getLabel();
+                    if (displayed.label == null || !displayed.label.equals(label)) {
+                        resultGlassBar.setText(label);
+                        displayed.label = label;
+                    }
                     String category = tiles.get(i + index).getCategory();
                     if (category != null) {
                         TileCategory cat = findCategory(category, categories);
-                        if (cat != null) {
-                            resultGlassBars.get(i).tintBackground(cat.getColor());
+                        if (cat != null && !cat.getColor().equals(displayed.color)) {
+                            resultGlassBar.tintBackground(cat.getColor());
+                            displayed.color = cat.getColor();
                         }
                     }
-                    resultGlassBars.get(i).setOpacity(1.0f);
-                } else {
-                    resultGlassBars.get(i).setOpacity(0.0f);
+                    if (displayed.visible != Boolean.TRUE) {
+                        resultGlassBar.setOpacity(1.0f);
+                        displayed.visible = true;
+                    }
+                } else if (displayed.visible != Boolean.FALSE) {
+                    resultGlassBar.setOpacity(0.0f);
+                    displayed.visible = false;
                 }
             }
         } catch (Exception e) {
@@ -114,6 +130,7 @@ public class BarManager {
     public void barReloadRequest() {
         inputGlassBar.reloadLayout(settings, false);
         resultGlassBars.forEach(glassBar -> glassBar.reloadLayout(settings, false));
+        displayedResults.forEach(DisplayedResult::clear);
     }
 
     public void setInputCaretVisible(boolean visible) {
@@ -124,4 +141,17 @@ public class BarManager {
         inputGlassBar.setText(input);
         inputGlassBar.setCaretPositionToEnd();
     }
+
+    private static class DisplayedResult {
+        // null if the state of the bar is unknown and has to be set on the next update
+        private String label;
+        private Color color;
+        private Boolean visible;
+
+        private void clear() {
+            label = null;
+            color = null;
+            visible = null;
+        }
+    }
 }
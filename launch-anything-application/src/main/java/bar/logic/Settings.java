@@ -262,6 +262,8 @@ public class Settings {
         NEXT_RESULT_KEY("nextResultKey", 40, "key", TYPE_KEY),
         PREVIOUS_RESULT_KEY("previousResultKey", 38, "key", TYPE_KEY),
         TILE_GENERATOR_FILE_LIMIT("tileGeneratorFileLimit", 1000, "tile", TYPE_INT),
+        TILE_GENERATOR_MAX_DEPTH("tileGeneratorMaxDepth", 32, "tile", TYPE_INT),
+        TILE_GENERATOR_EXCLUDES("tileGeneratorExcludes", "node_modules .git", "tile", TYPE_STRING),
         INPUT_BAR_FONT_SIZE("inputBarFontSize", 36, "input", TYPE_INT),
         RESULT_BAR_FONT_SIZE("resultBarFontSize", 30, "result", TYPE_INT),
         BAR_FONT_BOLD_BOOL("barFontBoldBool", true, "bar", TYPE_BOOLEAN),
@@ -0,0 +1,87 @@
+package bar.tile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs the evaluations of the user input on a small fixed pool of threads.<br>
+ * Every scheduled evaluation receives a generation number. Scheduling a new evaluation makes all older ones stale:
+ * they are expected to stop at their next {@link Evaluation#isStale()} checkpoint, and their results are dropped by
+ * {@link Evaluation#publish(Runnable)}, so that only the results of the latest input ever reach the listeners.
+ */
+public class EvaluationScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EvaluationScheduler.class);
+
+    private final ExecutorService executor;
+    private final AtomicLong currentGeneration = new AtomicLong();
+    private final Object publishLock = new Object();
+
+    public EvaluationScheduler(int threads) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tile-evaluation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a new evaluation and marks all previously scheduled evaluations as stale.
+     *
+     * @param task The evaluation to run.
+     * @return The scheduled evaluation.
+     */
+    public Evaluation schedule(Consumer<Evaluation> task) {
+        final Evaluation evaluation = new Evaluation(currentGeneration.incrementAndGet());
+        executor.execute(() -> {
+            // evaluations that have been replaced while waiting in the queue are skipped entirely
+            if (evaluation.isStale()) return;
+            try {
+                task.accept(evaluation);
+            } catch (Exception e) {
+                LOG.error("error ", e);
+            }
+        });
+        return evaluation;
+    }
+
+    public class Evaluation {
+        private final long generation;
+
+        private Evaluation(long generation) {
+            this.generation = generation;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * @return <code>true</code> if a newer evaluation has been scheduled since this one.
+         */
+        public boolean isStale() {
+            return currentGeneration.get() != generation;
+        }
+
+        /**
+         * Runs the action if this evaluation is still the latest one. No newer evaluation can publish while the
+         * action is running, so the published results are never out of order.
+         *
+         * @return <code>true</code> if the action has been run.
+         */
+        public boolean publish(Runnable action) {
+            synchronized (publishLock) {
+                if (isStale()) return false;
+                action.run();
+                return true;
+            }
+        }
+    }
+}
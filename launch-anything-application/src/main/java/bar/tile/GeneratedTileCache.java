@@ -0,0 +1,164 @@
+package bar.tile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file that stores the {@link GeneratedTileStore}s of a tile generator, so that the generated tiles can be
+ * searched right after a restart instead of after the directories have been walked again.<br>
+ * The file starts with a header that contains the fingerprint of the generator settings the tiles have been generated
+ * with, the modification times of the root directories at the time of the scan and a checksum of the store data. A
+ * cache is only used if the fingerprint and the checksum match.<br>
+ * The file is read with a single read into a buffer, from which the columns of the store are copied in bulk. It is not
+ * memory mapped, because a mapped file can not be replaced on Windows until the mapping has been garbage collected,
+ * which would make writing the next scan fail.
+ */
+public class GeneratedTileCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeneratedTileCache.class);
+
+    private final static int MAGIC = 0x4C414754;
+    private final static int FORMAT_VERSION = 2;
+
+    private final File file;
+
+    public GeneratedTileCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Writes the store to a temporary file first, which then replaces the cache file, so that a crash while writing
+     * never leaves a partial cache behind.
+     *
+     * @param lazyStore   The files of the generators that are resolved lazily.
+     * @param fingerprint The fingerprint of the settings the stores have been generated with.
+     * @param rootTimes   The modification times of the root directories at the time the scan has been started.
+     */
+    public void write(GeneratedTileStore store, GeneratedTileStore lazyStore, String fingerprint, Map<String, Long> rootTimes) {
+        try {
+            final ByteArrayOutputStream data = new ByteArrayOutputStream(Math.max(64, (store.size() + lazyStore.size()) * 32));
+            try (DataOutputStream out = new DataOutputStream(data)) {
+                store.writeTo(out);
+                lazyStore.writeTo(out);
+            }
+            final CRC32 checksum = new CRC32();
+            checksum.update(data.toByteArray());
+
+            final File directory = file.getAbsoluteFile().getParentFile();
+            if (!directory.exists() && !directory.mkdirs()) throw new IOException("Unable to create " + directory);
+            final File temporaryFile = new File(directory, file.getName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, fingerprint);
+                out.writeInt(rootTimes.size());
+                for (Map.Entry<String, Long> rootTime : rootTimes.entrySet()) {
+                    writeString(out, rootTime.getKey());
+                    out.writeLong(rootTime.getValue());
+                }
+                out.writeLong(checksum.getValue());
+                out.writeInt(data.size());
+                data.writeTo(out);
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to write generated tile cache [{}]: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * @param fingerprint The fingerprint of the current settings of the generator.
+     * @return The cached store or <code>null</code> if there is no valid cache for the fingerprint.
+     */
+    public Cached read(String fingerprint) {
+        if (!file.isFile()) return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) throw new EOFException();
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) return null;
+            if (!fingerprint.equals(readString(buffer))) return null;
+
+            final Map<String, Long> rootTimes = new LinkedHashMap<>();
+            final int rootCount = buffer.getInt();
+            for (int i = 0; i < rootCount; i++) {
+                rootTimes.put(readString(buffer), buffer.getLong());
+            }
+
+            final long expectedChecksum = buffer.getLong();
+            final int length = buffer.getInt();
+            final ByteBuffer data = buffer.slice();
+            data.limit(length);
+            final CRC32 checksum = new CRC32();
+            checksum.update(data.duplicate());
+            if (checksum.getValue() != expectedChecksum) {
+                LOG.warn("Generated tile cache [{}] is corrupted", file);
+                return null;
+            }
+
+            final GeneratedTileStore store = new GeneratedTileStore(data);
+            return new Cached(store, new GeneratedTileStore(data), rootTimes);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to read generated tile cache [{}]: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public void delete() {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("Unable to delete generated tile cache [{}]", file);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static class Cached {
+        private final GeneratedTileStore store;
+        private final GeneratedTileStore lazyStore;
+        private final Map<String, Long> rootTimes;
+
+        private Cached(GeneratedTileStore store, GeneratedTileStore lazyStore, Map<String, Long> rootTimes) {
+            this.store = store;
+            this.lazyStore = lazyStore;
+            this.rootTimes = rootTimes;
+        }
+
+        public GeneratedTileStore getStore() {
+            return store;
+        }
+
+        public GeneratedTileStore getLazyStore() {
+            return lazyStore;
+        }
+
+        /**
+         * @return The modification times of the root directories at the time the cached scan has been started.
+         */
+        public Map<String, Long> getRootTimes() {
+            return rootTimes;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package bar.tile;
+
+import bar.tile.search.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The generated tiles of a single {@link TileGenerator}.<br>
+ * The files found by the last scan of the directories are kept in a compact {@link GeneratedTileStore}. Files that are
+ * created or deleted afterwards are applied as changes on top of it: created files are kept as tiles in a separate
+ * small index, deleted files of the store are hidden from the results. The next scan replaces the store and drops the
+ * changes.<br>
+ * The files of generators that are resolved lazily are kept in a second store that is not indexed, it is searched path
+ * segment by path segment when the user enters a search, see {@link GeneratedTileStore#findCandidates(SearchQuery, int)}.
+ * <br>
+ * Every scan is written to a {@link GeneratedTileCache}, from which the tiles can be restored after a restart.
+ */
+public class GeneratedTileSet {
+
+    // once this many changes have been applied, the directories should be scanned again to store them compactly
+    private final static int MAX_CHANGES = 2000;
+    // the maximum amount of lazily resolved files that are checked per search
+    private final static int MAX_LAZY_CANDIDATES = 500;
+
+    private final TileGenerator generator;
+    private final GeneratedTileCache cache;
+    private volatile boolean cacheDeleted = false;
+
+    private volatile GeneratedTileStore store = GeneratedTileStore.empty();
+    private final TileIndex storeIndex = new TileIndex();
+    private final IncrementalTileSearch storeSearch = new IncrementalTileSearch(storeIndex);
+    private volatile GeneratedTileStore lazyStore = GeneratedTileStore.empty();
+
+    // the files that have been created or deleted since the last scan, modified while holding the lock of this set
+    private final Map<String, Tile> createdTiles = new LinkedHashMap<>();
+    private final TileIndex createdIndex = new TileIndex();
+    private final IncrementalTileSearch createdSearch = new IncrementalTileSearch(createdIndex);
+    private final Set<String> deletedTileIds = ConcurrentHashMap.newKeySet();
+    private volatile long deletedVersion = 0;
+
+    // the paths that have changed and the directories that have been deleted while a scan is running, they are applied
+    // again once the scan is complete
+    private Set<File> changedDuringScan = null;
+    private Set<File> deletedDuringScan = null;
+    private final Object scanLock = new Object();
+
+    /**
+     * @param cache The cache to restore the tiles from and to write the scans to or <code>null</code> to not cache the
+     *              tiles.
+     */
+    public GeneratedTileSet(TileGenerator generator, GeneratedTileCache cache) {
+        this.generator = generator;
+        this.cache = cache;
+    }
+
+    public TileGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Restores the tiles of the last scan from the cache, if it has been created with the current settings of the
+     * generator.
+     *
+     * @return <code>true</code> if the tiles have been restored and none of the root directories has been modified since
+     * the scan. The tiles may still be outdated in this case, since changes in subdirectories do not modify the roots.
+     */
+    public boolean loadFromCache() {
+        if (cache == null) return false;
+        synchronized (scanLock) {
+            final GeneratedTileCache.Cached cached = cache.read(generator.getFingerprint());
+            if (cached == null) return false;
+            synchronized (this) {
+                store = cached.getStore();
+                lazyStore = cached.getLazyStore();
+                storeIndex.rebuild(cached.getStore());
+            }
+            return cached.getRootTimes().equals(generator.getRootModificationTimes());
+        }
+    }
+
+    /**
+     * Deletes the cache, e.g. after the generator has been removed. Scans that are still running do not write it again.
+     */
+    public void deleteCache() {
+        cacheDeleted = true;
+        if (cache != null) cache.delete();
+    }
+
+    /**
+     * Walks the directories of the generator and replaces all tiles with the files that have been found.
+     *
+     * @param directoryVisitor Called with every directory that is walked, from several threads at once.
+     */
+    public void scan(Consumer<Path> directoryVisitor) {
+        synchronized (scanLock) {
+            synchronized (this) {
+                changedDuringScan = new HashSet<>();
+                deletedDuringScan = new HashSet<>();
+            }
+            // taken before the walk, so that modifications during the walk are detected after a restart
+            final String fingerprint = generator.getFingerprint();
+            final Map<String, Long> rootTimes = generator.getRootModificationTimes();
+
+            final GeneratedTileStore scanned = createStore(generator.generateFiles(false, directoryVisitor));
+            // the lazily resolved trees may be large, so their files are added to the store while they are walked
+            final GeneratedTileStore.Builder lazyBuilder = new GeneratedTileStore.Builder();
+            generator.generateLazyTiles(lazyBuilder, directoryVisitor);
+            final GeneratedTileStore scannedLazy = lazyBuilder.build();
+
+            synchronized (this) {
+                store = scanned;
+                lazyStore = scannedLazy;
+                storeIndex.rebuild(scanned);
+                createdTiles.clear();
+                createdIndex.rebuild(Collections.emptyList());
+                deletedTileIds.clear();
+                deletedVersion++;
+                // the walk may or may not have seen these changes, so they are checked against the disk again
+                final Set<File> changed = changedDuringScan;
+                final Set<File> deleted = deletedDuringScan;
+                changedDuringScan = null;
+                deletedDuringScan = null;
+                deleted.removeIf(File::exists);
+                applyChanges(changed, deleted);
+            }
+
+            if (cache != null && !cacheDeleted) cache.write(scanned, scannedLazy, fingerprint, rootTimes);
+        }
+    }
+
+    private GeneratedTileStore createStore(List<File> files) {
+        final GeneratedTileStore.Builder builder = new GeneratedTileStore.Builder();
+        generator.generateTiles(builder, files);
+        return builder.build();
+    }
+
+    /**
+     * Checks the files against the disk and adds or removes their tiles accordingly. Files that are not accepted by
+     * the generator are ignored.
+     *
+     * @param files              Files that may have been created or deleted.
+     * @param deletedDirectories Directories that have been deleted, all files inside them are removed.
+     */
+    public synchronized void applyChanges(Collection<File> files, Collection<File> deletedDirectories) {
+        if (changedDuringScan != null) changedDuringScan.addAll(files);
+        if (deletedDuringScan != null) deletedDuringScan.addAll(deletedDirectories);
+        final List<GeneratedTileStore> stores = Arrays.asList(store, lazyStore);
+        boolean createdTilesChanged = false;
+        boolean deletedTilesChanged = false;
+
+        for (File directory : deletedDirectories) {
+            final String prefix = directory.getAbsolutePath() + File.separator;
+            createdTilesChanged |= createdTiles.keySet().removeIf(path -> path.startsWith(prefix));
+            for (GeneratedTileStore store : stores) {
+                for (int file : store.findFilesInDirectory(directory)) {
+                    deletedTilesChanged |= deletedTileIds.add(store.getId(file));
+                }
+            }
+        }
+
+        for (File file : files) {
+            final String path = file.getAbsolutePath();
+            String storedId = null;
+            for (GeneratedTileStore store : stores) {
+                final int storedFile = store.indexOf(file);
+                if (storedFile != -1) storedId = store.getId(storedFile);
+            }
+            if (file.isFile() && generator.accepts(file)) {
+                if (storedId != null) {
+                    deletedTilesChanged |= deletedTileIds.remove(storedId);
+                } else if (!createdTiles.containsKey(path)) {
+                    createdTiles.put(path, generator.createTile(file));
+                    createdTilesChanged = true;
+                }
+            } else {
+                createdTilesChanged |= createdTiles.remove(path) != null;
+                if (storedId != null) deletedTilesChanged |= deletedTileIds.add(storedId);
+            }
+        }
+
+        // rebuilt once per batch of changes, which stays cheap since the directories are scanned again once there are
+        // more than MAX_CHANGES changes
+        if (createdTilesChanged) createdIndex.rebuild(new ArrayList<>(createdTiles.values()));
+        if (deletedTilesChanged) deletedVersion++;
+    }
+
+    /**
+     * @return <code>true</code> if so many changes have been applied since the last scan that the directories should
+     * be scanned again.
+     */
+    public synchronized boolean needsScan() {
+        return createdTiles.size() + deletedTileIds.size() > MAX_CHANGES;
+    }
+
+    /**
+     * @return The tiles that match the search, see {@link IncrementalTileSearch#search(String)}. The lazily resolved
+     * files are only found if they contain all words of the search.
+     */
+    public List<ScoredTile> search(String search) {
+        final List<ScoredTile> storeMatches = storeSearch.search(search);
+        final List<ScoredTile> lazyMatches = searchLazyStore(search);
+        final List<ScoredTile> createdMatches = createdSearch.search(search);
+        if (deletedTileIds.isEmpty() && lazyMatches.isEmpty() && createdMatches.isEmpty()) return storeMatches;
+
+        final List<ScoredTile> matches = new ArrayList<>(storeMatches.size() + lazyMatches.size() + createdMatches.size());
+        for (ScoredTile match : storeMatches) {
+            if (!deletedTileIds.contains(match.getId())) matches.add(match);
+        }
+        matches.addAll(lazyMatches);
+        matches.addAll(createdMatches);
+        return matches;
+    }
+
+    private List<ScoredTile> searchLazyStore(String search) {
+        final GeneratedTileStore lazyStore = this.lazyStore;
+        if (lazyStore.size() == 0) return Collections.emptyList();
+
+        final SearchQuery query = SearchQuery.of(search);
+        final List<ScoredTile> matches = new ArrayList<>();
+        for (int file : lazyStore.findCandidates(query, MAX_LAZY_CANDIDATES)) {
+            if (!deletedTileIds.isEmpty() && deletedTileIds.contains(lazyStore.getId(file))) continue;
+            final MatchTier tier = lazyStore.getMatchTier(file, query);
+            if (tier != null) matches.add(new ScoredTile(lazyStore, file, tier));
+        }
+        return matches;
+    }
+
+    public Tile findById(String id) {
+        if (id == null || deletedTileIds.contains(id)) return null;
+        Tile tile = createdIndex.findById(id);
+        if (tile == null) tile = storeIndex.findById(id);
+        return tile != null ? tile : lazyStore.findById(id);
+    }
+
+    public boolean contains(Tile tile) {
+        return tile != null && findById(tile.getId()) != null;
+    }
+
+    public int size() {
+        return storeIndex.size() + lazyStore.size() - deletedTileIds.size() + createdIndex.size();
+    }
+
+    /**
+     * @return A number that changes every time the tiles of this set change.
+     */
+    public long getVersion() {
+        // all versions only increase, so their sum changes whenever one of them does. The lazy store is replaced
+        // together with the store index, so it is covered by its version
+        return storeIndex.getVersion() + createdIndex.getVersion() + deletedVersion;
+    }
+}
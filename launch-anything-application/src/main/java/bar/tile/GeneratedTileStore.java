@@ -0,0 +1,713 @@
+package bar.tile;
+
+import bar.tile.action.TileAction;
+import bar.tile.search.MatchTier;
+import bar.tile.search.SearchQuery;
+import bar.tile.search.TileDocuments;
+import bar.tile.search.WordMatcher;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Compact columnar storage of the file tiles created by the tile generators.<br>
+ * Instead of a {@link Tile} object per file, only a few numbers are stored per file: the directory it is located in,
+ * its name and the generator it was created by. The names of the files and directories are interned path segments that
+ * are stored once in a shared character buffer, every directory is stored once as its parent directory and its name.
+ * <p>
+ * The {@link Tile} objects are created when they are accessed, which usually only happens for the tiles that are
+ * displayed: the search index is built from the stored path segments and the files are checked against a search
+ * without creating their tiles. Every access creates a new object with the same values and the same id, which is
+ * derived from the path of the file.
+ */
+public class GeneratedTileStore implements TileDocuments {
+
+    private final static Pattern DRIVE_LETTER_PATTERN = Pattern.compile("[A-Z]:");
+    private final static Pattern PATH_SEPARATOR_PATTERN = Pattern.compile("[/\\\\.]+");
+    private final static Pattern SPACES_PATTERN = Pattern.compile(" +");
+
+    // the path segments, segment i is stored in the characters from segmentOffsets[i] to segmentOffsets[i + 1]
+    private final char[] segmentChars;
+    private final int[] segmentOffsets;
+    // the directories as parent directory (-1 for the roots) and name segment
+    private final int[] directoryParents;
+    private final int[] directoryNames;
+    // the category and keywords of the tile generators
+    private final String[] sourceCategories;
+    private final String[] sourceKeywords;
+    // one entry per file
+    private final int size;
+    private final int[] fileDirectories;
+    private final int[] fileNames;
+    private final int[] fileSources;
+    private final long[] idsMostSignificant;
+    private final long[] idsLeastSignificant;
+    // the files ordered by the most significant bits of their ids, to find tiles by their id
+    private final long[] sortedIds;
+    private final int[] sortedIdFiles;
+    // the lowercase path segments and generator fields, created by the first call of findCandidates
+    private volatile char[][] lowercaseSegments;
+    private volatile char[][] lowercaseSources;
+    // the files that matched the last call of findCandidates
+    private final AtomicReference<Candidates> lastCandidates = new AtomicReference<>();
+
+    private GeneratedTileStore(Builder builder) {
+        segmentChars = builder.segmentChars.toString().toCharArray();
+        segmentOffsets = Arrays.copyOf(builder.segmentOffsets, builder.segmentCount + 1);
+        directoryParents = Arrays.copyOf(builder.directoryParents, builder.directoryCount);
+        directoryNames = Arrays.copyOf(builder.directoryNames, builder.directoryCount);
+        sourceCategories = builder.sourceCategories.toArray(new String[0]);
+        sourceKeywords = builder.sourceKeywords.toArray(new String[0]);
+        size = builder.fileCount;
+        fileDirectories = Arrays.copyOf(builder.fileDirectories, size);
+        fileNames = Arrays.copyOf(builder.fileNames, size);
+        fileSources = Arrays.copyOf(builder.fileSources, size);
+        idsMostSignificant = Arrays.copyOf(builder.idsMostSignificant, size);
+        idsLeastSignificant = Arrays.copyOf(builder.idsLeastSignificant, size);
+
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingLong(file -> idsMostSignificant[file]));
+        sortedIds = new long[size];
+        sortedIdFiles = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedIdFiles[i] = order[i];
+            sortedIds[i] = idsMostSignificant[order[i]];
+        }
+    }
+
+    /**
+     * Reads a store that has been written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @throws RuntimeException If the data is not a valid store.
+     */
+    GeneratedTileStore(ByteBuffer data) {
+        segmentChars = readChars(data);
+        segmentOffsets = readInts(data);
+        directoryParents = readInts(data);
+        directoryNames = readInts(data);
+        sourceCategories = new String[data.getInt()];
+        sourceKeywords = new String[sourceCategories.length];
+        for (int i = 0; i < sourceCategories.length; i++) {
+            sourceCategories[i] = readString(data);
+            sourceKeywords[i] = readString(data);
+        }
+        fileDirectories = readInts(data);
+        fileNames = readInts(data);
+        fileSources = readInts(data);
+        idsMostSignificant = readLongs(data);
+        idsLeastSignificant = readLongs(data);
+        sortedIds = readLongs(data);
+        sortedIdFiles = readInts(data);
+        size = fileDirectories.length;
+        if (fileNames.length != size || fileSources.length != size || idsMostSignificant.length != size
+            || idsLeastSignificant.length != size || sortedIds.length != size || sortedIdFiles.length != size) {
+            throw new IllegalArgumentException("Inconsistent file columns");
+        }
+    }
+
+    /**
+     * Writes the columns of the store, they can be read again using {@link #GeneratedTileStore(ByteBuffer)}.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(segmentChars.length);
+        for (char c : segmentChars) out.writeChar(c);
+        writeInts(out, segmentOffsets);
+        writeInts(out, directoryParents);
+        writeInts(out, directoryNames);
+        out.writeInt(sourceCategories.length);
+        for (int i = 0; i < sourceCategories.length; i++) {
+            writeString(out, sourceCategories[i]);
+            writeString(out, sourceKeywords[i]);
+        }
+        writeInts(out, fileDirectories);
+        writeInts(out, fileNames);
+        writeInts(out, fileSources);
+        writeLongs(out, idsMostSignificant);
+        writeLongs(out, idsLeastSignificant);
+        writeLongs(out, sortedIds);
+        writeInts(out, sortedIdFiles);
+    }
+
+    public static GeneratedTileStore empty() {
+        return new Builder().build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates the tile of a file, with the label, keywords and action of a file tile and the category and keywords of
+     * the tile generator appended.
+     */
+    @Override
+    public Tile get(int file) {
+        if (file < 0 || file >= size) {
+            throw new IndexOutOfBoundsException("Index: " + file + ", Size: " + size);
+        }
+        return createTile(getPath(file), getSegment(fileNames[file]), new UUID(idsMostSignificant[file], idsLeastSignificant[file]),
+                sourceCategories[fileSources[file]], sourceKeywords[fileSources[file]]);
+    }
+
+    /**
+     * @return <code>0</code>, the tiles are created without an activation time.
+     */
+    @Override
+    public long getLastActivated(int file) {
+        return 0;
+    }
+
+    @Override
+    public MatchTier getMatchTier(int file, SearchQuery query) {
+        final int source = fileSources[file];
+        return Tile.getMatchTier(TileGeneratorGenerator.fileTypeNameGenerator(getSegment(fileNames[file])), sourceCategories[source],
+                createKeywords(getPath(file), sourceKeywords[source]), query);
+    }
+
+    /**
+     * Passes the fields of the tiles in the parts they are stored in: the label of the file, the keywords of every
+     * segment of its path and the category and keywords of its generator. The parts are created once per segment.
+     */
+    @Override
+    public void visitSearchText(SearchTextVisitor visitor) {
+        final String[] labels = new String[segmentOffsets.length - 1];
+        final String[] segmentKeywords = new String[labels.length];
+        for (int file = 0; file < size; file++) {
+            final int name = fileNames[file];
+            if (labels[name] == null) labels[name] = TileGeneratorGenerator.fileTypeNameGenerator(getSegment(name));
+            visitor.visit(file, labels[name]);
+            visitor.visit(file, sourceCategories[fileSources[file]]);
+            visitor.visit(file, getSegmentKeywords(segmentKeywords, name));
+            for (int directory = fileDirectories[file]; directory != -1; directory = directoryParents[directory]) {
+                visitor.visit(file, getSegmentKeywords(segmentKeywords, directoryNames[directory]));
+            }
+            visitor.visit(file, sourceKeywords[fileSources[file]]);
+        }
+    }
+
+    private String getSegmentKeywords(String[] segmentKeywords, int segment) {
+        if (segmentKeywords[segment] == null) {
+            // the same as the keywords of a whole path, see createKeywords
+            segmentKeywords[segment] = PATH_SEPARATOR_PATTERN.matcher(DRIVE_LETTER_PATTERN.matcher(getSegment(segment)).replaceAll("")).replaceAll(" ");
+        }
+        return segmentKeywords[segment];
+    }
+
+    /**
+     * Creates the tile of a file that is not part of a store, with the same values the store would create.
+     */
+    public static Tile createTile(File file, String category, String keywords) {
+        final String path = file.getAbsolutePath();
+        return createTile(path, file.getName(), createId(path), category, keywords);
+    }
+
+    private static Tile createTile(String path, String name, UUID id, String category, String keywords) {
+        final Tile tile = new Tile(TileGeneratorGenerator.fileTypeNameGenerator(name));
+        tile.setId(id.toString());
+        tile.addAction(TileAction.getInstance("file", path));
+        tile.setCategory(category);
+        tile.setKeywords(createKeywords(path, keywords));
+        return tile;
+    }
+
+    @Override
+    public int indexOf(Tile tile) {
+        return findFile(tile.getId());
+    }
+
+    @Override
+    public Tile findById(String id) {
+        final int file = findFile(id);
+        return file != -1 ? get(file) : null;
+    }
+
+    /**
+     * @return The position of the file or <code>-1</code> if it is not part of the store.
+     */
+    public int indexOf(File file) {
+        return findFile(createId(file.getAbsolutePath()));
+    }
+
+    /**
+     * @return The positions of all files that are located in the directory or one of its subdirectories.
+     */
+    public List<Integer> findFilesInDirectory(File directory) {
+        final String path = directory.getAbsolutePath();
+        // the parents of a directory are always stored before the directory itself
+        final boolean[] contained = new boolean[directoryParents.length];
+        for (int i = 0; i < directoryParents.length; i++) {
+            contained[i] = directoryParents[i] != -1 && contained[directoryParents[i]] || getDirectoryPath(i).equals(path);
+        }
+        final List<Integer> files = new ArrayList<>();
+        for (int file = 0; file < size; file++) {
+            if (contained[fileDirectories[file]]) files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * Finds the files that may match the search without creating a tile for every file: the path segments of the files
+     * are checked against the words of the search, every distinct segment at most once per search, and the matches of
+     * the directories are passed on to their subdirectories. A file is a candidate if every word is contained in its
+     * name, in one of its directories or in the category and keywords of its generator, which is the case for every
+     * file whose tile contains all words. Candidates whose name contains all words are returned first.<br>
+     * The files are checked in order until enough candidates have been found by their name. The matches of the checked
+     * files are kept, while the user extends the search only these files are checked again and the remaining files
+     * are checked where the last search stopped.<br>
+     * Files that only match the smart search are not found.
+     *
+     * @param limit The maximum amount of candidates.
+     * @return The positions of the candidates.
+     */
+    public List<Integer> findCandidates(SearchQuery query, int limit) {
+        final List<Integer> candidates = new ArrayList<>();
+        // the words are tracked as bits, further words are only checked on the tiles of the candidates
+        final char[][] words = Arrays.copyOf(query.getLowercaseWords(), Math.min(query.getLowercaseWords().length, 31));
+        if (words.length == 0 || limit < 1) return candidates;
+
+        final Candidates last = lastCandidates.get();
+        final Candidates current;
+        if (last != null && Arrays.deepEquals(last.words, words) && (last.checked == size || last.nameMatchCount >= limit)) {
+            current = last;
+        } else {
+            final WordMasks masks = new WordMasks(words);
+            current = new Candidates(words);
+            if (last != null && last.isNarrowedBy(words)) {
+                for (int i = 0; i < last.matchCount; i++) {
+                    current.check(masks, last.matches[i]);
+                }
+                current.checked = last.checked;
+            }
+            for (int i = 0; current.checked < size && current.nameMatchCount < limit; i++) {
+                // a long walk through the files needs most of the segments, they are faster to compute in order
+                if (i == size / 8) masks.computeAll();
+                current.check(masks, current.checked++);
+            }
+            lastCandidates.set(current);
+        }
+
+        final List<Integer> pathMatches = new ArrayList<>();
+        for (int i = 0; i < current.matchCount && candidates.size() < limit; i++) {
+            if (current.nameMatches[i]) {
+                candidates.add(current.matches[i]);
+            } else if (pathMatches.size() < limit) {
+                pathMatches.add(current.matches[i]);
+            }
+        }
+        candidates.addAll(pathMatches.subList(0, Math.min(pathMatches.size(), limit - candidates.size())));
+        return candidates;
+    }
+
+    private static int findContainedWords(char[] text, char[][] words) {
+        int contained = 0;
+        for (int word = 0; word < words.length; word++) {
+            if (WordMatcher.contains(text, words[word])) contained |= 1 << word;
+        }
+        return contained;
+    }
+
+    /**
+     * The words of a search that are contained in the segments, directories and generators of the store. Every value
+     * is computed once it is needed, since usually only a part of the files is checked.
+     */
+    private class WordMasks {
+        // the highest bit marks the values that have been computed, there are at most 31 words
+        private static final int COMPUTED = 1 << 31;
+
+        private final char[][] words;
+        private final int allWords;
+        private final char[][] segments = getLowercaseSegments();
+        private final char[][] sources = getLowercaseSources();
+        private final int[] segmentWords = new int[segmentOffsets.length - 1];
+        private final int[] directoryWords = new int[directoryParents.length];
+        private final int[] sourceWords = new int[sourceCategories.length];
+        // the label of a file tile shows the extension in parentheses, e.g. "report (PDF)", which only contains text that
+        // is not part of the file name for words with parentheses
+        private final boolean matchLabels;
+        private final int[] nameWords;
+
+        private WordMasks(char[][] words) {
+            this.words = words;
+            this.allWords = (1 << words.length) - 1;
+            boolean parentheses = false;
+            for (char[] word : words) {
+                for (char c : word) {
+                    if (c == '(' || c == ')') parentheses = true;
+                }
+            }
+            this.matchLabels = parentheses;
+            this.nameWords = parentheses ? new int[segmentWords.length] : null;
+        }
+
+        private void computeAll() {
+            for (int segment = 0; segment < segmentWords.length; segment++) {
+                ofSegment(segment);
+            }
+            // the parents of a directory are always stored before the directory itself
+            for (int directory = 0; directory < directoryWords.length; directory++) {
+                if (directoryWords[directory] == 0) {
+                    final int parent = directoryParents[directory];
+                    directoryWords[directory] = ofSegment(directoryNames[directory]) | (parent != -1 ? directoryWords[parent] : 0) | COMPUTED;
+                }
+            }
+        }
+
+        private int ofSegment(int segment) {
+            if (segmentWords[segment] == 0) {
+                segmentWords[segment] = findContainedWords(segments[segment], words) | COMPUTED;
+            }
+            return segmentWords[segment] & ~COMPUTED;
+        }
+
+        private int ofName(int segment) {
+            if (!matchLabels) {
+                final int contained = ofSegment(segment);
+                // rare enough to not be worth caching
+                return contained == allWords || !hasNonAsciiExtension(segment) ? contained : contained | ofLabel(segment);
+            }
+            if (nameWords[segment] == 0) {
+                final int contained = ofSegment(segment);
+                nameWords[segment] = (contained == allWords ? contained : contained | ofLabel(segment)) | COMPUTED;
+            }
+            return nameWords[segment] & ~COMPUTED;
+        }
+
+        private int ofLabel(int segment) {
+            final String label = TileGeneratorGenerator.fileTypeNameGenerator(getSegment(segment));
+            return findContainedWords(Tile.normalizeLowercase(label).toCharArray(), words);
+        }
+
+        private int ofDirectory(int directory) {
+            if (directoryWords[directory] == 0) {
+                final int parent = directoryParents[directory];
+                directoryWords[directory] = ofSegment(directoryNames[directory]) | (parent != -1 ? ofDirectory(parent) : 0) | COMPUTED;
+            }
+            return directoryWords[directory] & ~COMPUTED;
+        }
+
+        private int ofSource(int source) {
+            if (sourceWords[source] == 0) {
+                sourceWords[source] = findContainedWords(sources[source], words) | COMPUTED;
+            }
+            return sourceWords[source] & ~COMPUTED;
+        }
+    }
+
+    /**
+     * The files that contain all words of a search, among the files that have been checked so far. Once it has been
+     * passed to {@link #lastCandidates}, it is not modified anymore.
+     */
+    private class Candidates {
+        private final char[][] words;
+        // the files before this one have been checked
+        private int checked = 0;
+        private int[] matches = new int[64];
+        private boolean[] nameMatches = new boolean[64];
+        private int matchCount = 0;
+        private int nameMatchCount = 0;
+
+        private Candidates(char[][] words) {
+            this.words = words;
+        }
+
+        private void check(WordMasks masks, int file) {
+            final int nameWords = masks.ofName(fileNames[file]);
+            final boolean nameMatch = nameWords == masks.allWords;
+            if (!nameMatch && (nameWords | masks.ofDirectory(fileDirectories[file]) | masks.ofSource(fileSources[file])) != masks.allWords) {
+                return;
+            }
+            if (matchCount == matches.length) {
+                matches = Arrays.copyOf(matches, matchCount * 2);
+                nameMatches = Arrays.copyOf(nameMatches, matchCount * 2);
+            }
+            matches[matchCount] = file;
+            nameMatches[matchCount] = nameMatch;
+            matchCount++;
+            if (nameMatch) nameMatchCount++;
+        }
+
+        /**
+         * @return <code>true</code> if every file that contains the words also contains the words of this search,
+         * which is the case if each of these words is part of one of the words, e.g. when the search has been extended.
+         */
+        private boolean isNarrowedBy(char[][] words) {
+            for (char[] word : this.words) {
+                boolean contained = false;
+                for (char[] narrowed : words) {
+                    if (WordMatcher.contains(narrowed, word)) {
+                        contained = true;
+                        break;
+                    }
+                }
+                if (!contained) return false;
+            }
+            return true;
+        }
+    }
+
+    private char[][] getLowercaseSegments() {
+        char[][] segments = lowercaseSegments;
+        if (segments == null) {
+            segments = new char[segmentOffsets.length - 1][];
+            for (int segment = 0; segment < segments.length; segment++) {
+                segments[segment] = Tile.normalizeLowercase(getSegment(segment)).toCharArray();
+            }
+            lowercaseSegments = segments;
+        }
+        return segments;
+    }
+
+    private char[][] getLowercaseSources() {
+        char[][] sources = lowercaseSources;
+        if (sources == null) {
+            sources = new char[sourceCategories.length][];
+            for (int source = 0; source < sources.length; source++) {
+                sources[source] = Tile.normalizeLowercase(sourceCategories[source] + " " + sourceKeywords[source]).toCharArray();
+            }
+            lowercaseSources = sources;
+        }
+        return sources;
+    }
+
+    @Override
+    public String getId(int file) {
+        return new UUID(idsMostSignificant[file], idsLeastSignificant[file]).toString();
+    }
+
+    public String getPath(int file) {
+        final StringBuilder path = new StringBuilder();
+        appendDirectory(path, fileDirectories[file]);
+        return path.append(File.separatorChar).append(segmentChars, segmentOffsets[fileNames[file]], segmentLength(fileNames[file])).toString();
+    }
+
+    private String getDirectoryPath(int directory) {
+        final StringBuilder path = new StringBuilder();
+        appendDirectory(path, directory);
+        return path.toString();
+    }
+
+    private void appendDirectory(StringBuilder path, int directory) {
+        if (directoryParents[directory] != -1) {
+            appendDirectory(path, directoryParents[directory]);
+            path.append(File.separatorChar);
+        }
+        path.append(segmentChars, segmentOffsets[directoryNames[directory]], segmentLength(directoryNames[directory]));
+    }
+
+    private String getSegment(int segment) {
+        return new String(segmentChars, segmentOffsets[segment], segmentLength(segment));
+    }
+
+    /**
+     * @return <code>true</code> if the extension of a file name may change when it is converted to upper case for the
+     * label and back to lower case for the search, e.g. <code>ß</code> becomes <code>ss</code>.
+     */
+    private boolean hasNonAsciiExtension(int segment) {
+        boolean nonAscii = false;
+        for (int i = segmentOffsets[segment + 1] - 1; i >= segmentOffsets[segment]; i--) {
+            if (segmentChars[i] == '.') return nonAscii;
+            if (segmentChars[i] > 127) nonAscii = true;
+        }
+        return false;
+    }
+
+    private int segmentLength(int segment) {
+        return segmentOffsets[segment + 1] - segmentOffsets[segment];
+    }
+
+    private int findFile(String id) {
+        if (id == null) return -1;
+        try {
+            return findFile(UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private int findFile(UUID uuid) {
+        int low = 0, high = size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (sortedIds[middle] < uuid.getMostSignificantBits()) low = middle + 1;
+            else high = middle;
+        }
+        for (int i = low; i < size && sortedIds[i] == uuid.getMostSignificantBits(); i++) {
+            if (idsLeastSignificant[sortedIdFiles[i]] == uuid.getLeastSignificantBits()) return sortedIdFiles[i];
+        }
+        return -1;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) out.writeLong(value);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    // the arrays are copied from the buffer in bulk, instead of reading every value separately
+
+    private static char[] readChars(ByteBuffer data) {
+        final char[] values = new char[data.getInt()];
+        data.asCharBuffer().get(values);
+        data.position(data.position() + values.length * Character.BYTES);
+        return values;
+    }
+
+    private static int[] readInts(ByteBuffer data) {
+        final int[] values = new int[data.getInt()];
+        data.asIntBuffer().get(values);
+        data.position(data.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    private static long[] readLongs(ByteBuffer data) {
+        final long[] values = new long[data.getInt()];
+        data.asLongBuffer().get(values);
+        data.position(data.position() + values.length * Long.BYTES);
+        return values;
+    }
+
+    private static String readString(ByteBuffer data) {
+        final int length = data.getInt();
+        if (length == -1) return null;
+        final byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The keywords of a generated file tile: the segments of the path, followed by the keywords of the generator.
+     */
+    static String createKeywords(String path, String generatorKeywords) {
+        final String pathKeywords = SPACES_PATTERN.matcher(PATH_SEPARATOR_PATTERN.matcher(DRIVE_LETTER_PATTERN.matcher(path).replaceAll("")).replaceAll(" ")).replaceAll(" ").trim();
+        return SPACES_PATTERN.matcher(pathKeywords + " " + generatorKeywords).replaceAll(" ").trim();
+    }
+
+    /**
+     * @return The id of the tile of a file, derived from its path so that it stays the same when the file is generated
+     * again.
+     */
+    static UUID createId(String path) {
+        return UUID.nameUUIDFromBytes(path.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Collects the files of the tile generators. The lookup tables that are used to intern the path segments and
+     * directories are dropped when the store is built.
+     */
+    public static class Builder {
+
+        private final Map<String, Integer> segmentIds = new HashMap<>();
+        private final StringBuilder segmentChars = new StringBuilder();
+        private int[] segmentOffsets = new int[64];
+        private int segmentCount = 0;
+
+        private final Map<String, Integer> directoryIds = new HashMap<>();
+        private int[] directoryParents = new int[64];
+        private int[] directoryNames = new int[64];
+        private int directoryCount = 0;
+
+        private final Map<List<String>, Integer> sourceIds = new HashMap<>();
+        private final List<String> sourceCategories = new ArrayList<>();
+        private final List<String> sourceKeywords = new ArrayList<>();
+
+        private int[] fileDirectories = new int[64];
+        private int[] fileNames = new int[64];
+        private int[] fileSources = new int[64];
+        private long[] idsMostSignificant = new long[64];
+        private long[] idsLeastSignificant = new long[64];
+        private int fileCount = 0;
+
+        /**
+         * @param file     The file to create a tile for.
+         * @param category The category of the tile generator.
+         * @param keywords The keywords of the tile generator.
+         */
+        public void addFile(File file, String category, String keywords) {
+            final String path = file.getAbsolutePath();
+            final int separator = path.lastIndexOf(File.separatorChar);
+            if (separator == -1) return;
+
+            if (fileCount == fileDirectories.length) {
+                final int capacity = fileCount * 2;
+                fileDirectories = Arrays.copyOf(fileDirectories, capacity);
+                fileNames = Arrays.copyOf(fileNames, capacity);
+                fileSources = Arrays.copyOf(fileSources, capacity);
+                idsMostSignificant = Arrays.copyOf(idsMostSignificant, capacity);
+                idsLeastSignificant = Arrays.copyOf(idsLeastSignificant, capacity);
+            }
+            final UUID id = createId(path);
+            fileDirectories[fileCount] = internDirectory(path.substring(0, separator));
+            fileNames[fileCount] = internSegment(path.substring(separator + 1));
+            fileSources[fileCount] = internSource(category, keywords);
+            idsMostSignificant[fileCount] = id.getMostSignificantBits();
+            idsLeastSignificant[fileCount] = id.getLeastSignificantBits();
+            fileCount++;
+        }
+
+        public GeneratedTileStore build() {
+            if (segmentCount + 1 > segmentOffsets.length) segmentOffsets = Arrays.copyOf(segmentOffsets, segmentCount + 1);
+            segmentOffsets[segmentCount] = segmentChars.length();
+            return new GeneratedTileStore(this);
+        }
+
+        private int internDirectory(String path) {
+            final Integer existing = directoryIds.get(path);
+            if (existing != null) return existing;
+
+            final int separator = path.lastIndexOf(File.separatorChar);
+            final int parent = separator == -1 ? -1 : internDirectory(path.substring(0, separator));
+            final int name = internSegment(separator == -1 ? path : path.substring(separator + 1));
+            if (directoryCount == directoryParents.length) {
+                directoryParents = Arrays.copyOf(directoryParents, directoryCount * 2);
+                directoryNames = Arrays.copyOf(directoryNames, directoryCount * 2);
+            }
+            directoryParents[directoryCount] = parent;
+            directoryNames[directoryCount] = name;
+            directoryIds.put(path, directoryCount);
+            return directoryCount++;
+        }
+
+        private int internSegment(String segment) {
+            final Integer existing = segmentIds.get(segment);
+            if (existing != null) return existing;
+            // one more offset is needed for the end of the last segment
+            if (segmentCount + 1 >= segmentOffsets.length) segmentOffsets = Arrays.copyOf(segmentOffsets, segmentOffsets.length * 2);
+            segmentOffsets[segmentCount] = segmentChars.length();
+            segmentChars.append(segment);
+            segmentIds.put(segment, segmentCount);
+            return segmentCount++;
+        }
+
+        private int internSource(String category, String keywords) {
+            final List<String> key = Arrays.asList(category, keywords);
+            final Integer existing = sourceIds.get(key);
+            if (existing != null) return existing;
+            sourceCategories.add(category);
+            sourceKeywords.add(keywords);
+            sourceIds.put(key, sourceCategories.size() - 1);
+            return sourceCategories.size() - 1;
+        }
+    }
+}
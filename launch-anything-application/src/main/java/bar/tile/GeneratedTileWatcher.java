@@ -0,0 +1,202 @@
+package bar.tile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps the {@link GeneratedTileSet}s up to date with the files on disk.<br>
+ * Every directory that is walked by a scan is registered with a {@link WatchService}. Created and deleted files are
+ * applied to the sets as incremental changes, collected over {@link #EVENT_DELAY} milliseconds so that e.g. copying a
+ * directory results in a single update of the index. All sets are scanned again every {@link #RECONCILE_INTERVAL}
+ * milliseconds on a low priority thread, to pick up changes that have not been reported.
+ */
+public class GeneratedTileWatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeneratedTileWatcher.class);
+
+    private final static long EVENT_DELAY = 500;
+    private final static long RECONCILE_INTERVAL = TimeUnit.HOURS.toMillis(1);
+    // every watched directory uses a handle of the operating system, changes in other directories are only picked up
+    // by the reconciliation
+    private final static int MAX_WATCHED_DIRECTORIES = 20000;
+
+    private WatchService watchService;
+    // set once no more directories can be watched, until directories are unwatched again
+    private boolean watchLimitReached = false;
+    private final Map<Path, WatchKey> watchedDirectories = new HashMap<>();
+    private final Map<WatchKey, Set<GeneratedTileSet>> watchingSets = new HashMap<>();
+    private final Set<GeneratedTileSet> sets = new CopyOnWriteArraySet<>();
+    private final Set<GeneratedTileSet> pendingScans = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "generated-tile-reconciler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * Starts to watch the registered directories and to reconcile the sets periodically. Before, sets can be scanned
+     * but their directories are not watched.
+     */
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.warn("Unable to watch the directories of the tile generators: {}", e.getMessage());
+        }
+        if (watchService != null) {
+            final Thread thread = new Thread(this::processEvents, "generated-tile-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        reconciler.scheduleWithFixedDelay(() -> sets.forEach(this::scan), RECONCILE_INTERVAL, RECONCILE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public void watch(GeneratedTileSet set) {
+        sets.add(set);
+    }
+
+    public synchronized void unwatch(GeneratedTileSet set) {
+        sets.remove(set);
+        for (Iterator<Map.Entry<WatchKey, Set<GeneratedTileSet>>> iterator = watchingSets.entrySet().iterator(); iterator.hasNext(); ) {
+            final Map.Entry<WatchKey, Set<GeneratedTileSet>> entry = iterator.next();
+            entry.getValue().remove(set);
+            if (entry.getValue().isEmpty()) {
+                entry.getKey().cancel();
+                watchedDirectories.remove((Path) entry.getKey().watchable());
+                iterator.remove();
+                watchLimitReached = false;
+            }
+        }
+    }
+
+    /**
+     * Scans the directories of the set and registers them to be watched.
+     */
+    public void scan(GeneratedTileSet set) {
+        pendingScans.remove(set);
+        if (!sets.contains(set)) return;
+        try {
+            set.scan(directory -> register(set, directory));
+        } catch (Exception e) {
+            LOG.error("error ", e);
+        }
+    }
+
+    /**
+     * Scans the set on the low priority thread, unless a scan is already pending.
+     */
+    public void scheduleScan(GeneratedTileSet set) {
+        if (pendingScans.add(set)) reconciler.execute(() -> scan(set));
+    }
+
+    private synchronized void register(GeneratedTileSet set, Path directory) {
+        if (watchService == null) return;
+        WatchKey key = watchedDirectories.get(directory);
+        if (key == null) {
+            if (watchLimitReached) return;
+            if (watchedDirectories.size() >= MAX_WATCHED_DIRECTORIES) {
+                watchLimitReached = true;
+                LOG.warn("Not watching more than [{}] directories, changes in the other directories are picked up by the next scan", MAX_WATCHED_DIRECTORIES);
+                return;
+            }
+            try {
+                key = directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE);
+            } catch (NoSuchFileException e) {
+                // deleted since it has been walked
+                return;
+            } catch (IOException e) {
+                // e.g. the limit of watches of the operating system, registering further directories would fail as well
+                watchLimitReached = true;
+                LOG.warn("Unable to watch directory [{}], not watching any further directories: {}", directory, e.getMessage());
+                return;
+            }
+            watchedDirectories.put(directory, key);
+        }
+        watchingSets.computeIfAbsent(key, k -> new HashSet<>()).add(set);
+    }
+
+    private synchronized Set<GeneratedTileSet> getWatchingSets(WatchKey key) {
+        final Set<GeneratedTileSet> watching = watchingSets.get(key);
+        return watching != null ? new HashSet<>(watching) : Collections.emptySet();
+    }
+
+    private synchronized boolean isWatched(Path directory) {
+        return watchedDirectories.containsKey(directory);
+    }
+
+    private synchronized void removeKey(WatchKey key) {
+        watchingSets.remove(key);
+        watchedDirectories.remove((Path) key.watchable());
+    }
+
+    private void processEvents() {
+        while (true) {
+            try {
+                WatchKey key = watchService.take();
+                Thread.sleep(EVENT_DELAY);
+                final Map<GeneratedTileSet, Changes> changes = new HashMap<>();
+                do {
+                    collectChanges(key, changes);
+                } while ((key = watchService.poll()) != null);
+
+                for (Map.Entry<GeneratedTileSet, Changes> entry : changes.entrySet()) {
+                    final GeneratedTileSet set = entry.getKey();
+                    if (!sets.contains(set)) continue;
+                    set.applyChanges(entry.getValue().files, entry.getValue().deletedDirectories);
+                    if (set.needsScan()) scheduleScan(set);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (Exception e) {
+                LOG.error("error ", e);
+            }
+        }
+    }
+
+    private void collectChanges(WatchKey key, Map<GeneratedTileSet, Changes> changes) {
+        final Path directory = (Path) key.watchable();
+        final Set<GeneratedTileSet> watching = getWatchingSets(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // events have been lost, only a scan can tell which files have changed
+                watching.forEach(this::scheduleScan);
+                continue;
+            }
+            final Path path = directory.resolve((Path) event.context());
+            for (GeneratedTileSet set : watching) {
+                final Changes setChanges = changes.computeIfAbsent(set, k -> new Changes());
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    // files may have been created in the directory before it has been registered
+                    setChanges.files.addAll(set.getGenerator().generateFiles(path.toFile(), subdirectory -> register(set, subdirectory)));
+                } else if (event.kind() == ENTRY_DELETE && isWatched(path)) {
+                    setChanges.deletedDirectories.add(path.toFile());
+                } else {
+                    setChanges.files.add(path.toFile());
+                }
+            }
+        }
+
+        if (!key.reset()) {
+            // the directory has been deleted or is not accessible anymore
+            for (GeneratedTileSet set : watching) {
+                changes.computeIfAbsent(set, k -> new Changes()).deletedDirectories.add(directory.toFile());
+            }
+            removeKey(key);
+        }
+    }
+
+    private static class Changes {
+        private final Set<File> files = new LinkedHashSet<>();
+        private final Set<File> deletedDirectories = new LinkedHashSet<>();
+    }
+}
@@ -35,6 +35,13 @@ public class PluginTileLoader {
         }
     }
 
+    /**
+     * Creates a plugin loader for the given directory instead of searching for the plugin directory of the launcher.
+     */
+    public PluginTileLoader(File pluginDirectory) {
+        this.pluginDirectory = pluginDirectory;
+    }
+
     private final static String[] possiblePluginDirectories = {
             "res/plugins/la/plugin",
             "plugins/la/plugin",
@@ -0,0 +1,125 @@
+package bar.tile;
+
+import bar.tile.custom.RuntimeTile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs the {@link RuntimeTile}s for a search in parallel.<br>
+ * Every runtime tile gets its own time budget ({@link RuntimeTile#getEvaluationTimeout()}), after which it is
+ * interrupted and its tiles are discarded. This way, a slow runtime tile that has to perform a network request does not
+ * delay the tiles of all other runtime tiles.
+ */
+public class RuntimeTileEvaluator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RuntimeTileEvaluator.class);
+
+    // the evaluation blocks a thread of the evaluation scheduler, so it has to notice early when it has become stale
+    private static final long STALE_CHECK_INTERVAL = 50;
+
+    private final ExecutorService executor;
+
+    public RuntimeTileEvaluator() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "runtime-tile-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Generates the tiles of all runtime tiles for the search and blocks until all of them are done, have run out of time
+     * or the evaluation has become stale.
+     *
+     * @param evaluation         The evaluation the tiles are generated for.
+     * @param search             The search string the user entered.
+     * @param runtimeTiles       The runtime tiles to evaluate.
+     * @param lastInputEvaluated The last time in milliseconds the user entered a search string.
+     * @param onTilesGenerated   Called every time a runtime tile has generated tiles, with the tiles of all runtime tiles
+     *                           that are done so far. The tiles are always in the order of the runtime tiles.
+     */
+    public void evaluate(EvaluationScheduler.Evaluation evaluation, String search, List<RuntimeTile> runtimeTiles,
+                         AtomicReference<Long> lastInputEvaluated, Consumer<List<Tile>> onTilesGenerated) {
+        if (runtimeTiles.isEmpty()) return;
+
+        final CompletionService<List<Tile>> completionService = new ExecutorCompletionService<>(executor);
+        final Map<Future<List<Tile>>, Integer> pending = new HashMap<>();
+        final long[] deadlines = new long[runtimeTiles.size()];
+        final List<List<Tile>> generatedTiles = new ArrayList<>(Collections.nCopies(runtimeTiles.size(), Collections.emptyList()));
+
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < runtimeTiles.size(); i++) {
+            final RuntimeTile runtimeTile = runtimeTiles.get(i);
+            deadlines[i] = start + runtimeTile.getEvaluationTimeout();
+            pending.put(completionService.submit(() -> runtimeTile.generateTiles(search, lastInputEvaluated)), i);
+        }
+
+        try {
+            while (!pending.isEmpty() && !evaluation.isStale()) {
+                long nextDeadline = Long.MAX_VALUE;
+                for (int index : pending.values()) {
+                    nextDeadline = Math.min(nextDeadline, deadlines[index]);
+                }
+
+                final long untilDeadline = nextDeadline - System.currentTimeMillis();
+                final Future<List<Tile>> done = completionService.poll(Math.max(0, Math.min(untilDeadline, STALE_CHECK_INTERVAL)), TimeUnit.MILLISECONDS);
+                if (done != null) {
+                    // runtime tiles that have been cancelled after running out of time are reported as done as well
+                    final Integer index = pending.remove(done);
+                    if (index == null) continue;
+                    final List<Tile> tiles = getGeneratedTiles(runtimeTiles.get(index), done);
+                    if (tiles.isEmpty()) continue;
+                    generatedTiles.set(index, tiles);
+                    if (!evaluation.isStale()) onTilesGenerated.accept(flatten(generatedTiles));
+                } else {
+                    cancelExpired(runtimeTiles, pending, deadlines);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // the runtime tiles of a stale evaluation are interrupted as well, so they do not hold the threads any longer
+            for (Future<List<Tile>> future : pending.keySet()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static List<Tile> getGeneratedTiles(RuntimeTile runtimeTile, Future<List<Tile>> future) throws InterruptedException {
+        try {
+            final List<Tile> tiles = future.get();
+            return tiles != null ? tiles : Collections.emptyList();
+        } catch (ExecutionException e) {
+            LOG.error("Runtime tile [{}] failed to generate tiles", runtimeTile.getName(), e.getCause());
+            return Collections.emptyList();
+        }
+    }
+
+    private static void cancelExpired(List<RuntimeTile> runtimeTiles, Map<Future<List<Tile>>, Integer> pending, long[] deadlines) {
+        final long now = System.currentTimeMillis();
+        final Iterator<Map.Entry<Future<List<Tile>>, Integer>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Future<List<Tile>>, Integer> entry = iterator.next();
+            if (deadlines[entry.getValue()] <= now) {
+                entry.getKey().cancel(true);
+                iterator.remove();
+                LOG.warn("Runtime tile [{}] did not generate its tiles in time", runtimeTiles.get(entry.getValue()).getName());
+            }
+        }
+    }
+
+    private static List<Tile> flatten(List<List<Tile>> generatedTiles) {
+        final List<Tile> tiles = new ArrayList<>();
+        for (List<Tile> runtimeTileTiles : generatedTiles) {
+            tiles.addAll(runtimeTileTiles);
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,87 @@
+package bar.tile;
+
+import bar.tile.custom.RuntimeTile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Selects the runtime tiles that have to be evaluated for an input.<br>
+ * Runtime tiles that declare {@link RuntimeTile#getTriggerPrefixes()} are indexed by their prefixes and are only
+ * selected if the input starts with one of them. All selected runtime tiles are then filtered using
+ * {@link RuntimeTile#mayMatch(String)}.
+ */
+public class RuntimeTileRouter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RuntimeTileRouter.class);
+
+    private final List<RuntimeTile> runtimeTiles;
+    private final Map<String, List<Integer>> triggeredRuntimeTiles = new HashMap<>();
+    private final BitSet untriggeredRuntimeTiles = new BitSet();
+    private int maxPrefixLength = 0;
+
+    public RuntimeTileRouter(List<RuntimeTile> runtimeTiles) {
+        this.runtimeTiles = new ArrayList<>(runtimeTiles);
+        for (int i = 0; i < this.runtimeTiles.size(); i++) {
+            final String[] prefixes = getTriggerPrefixes(this.runtimeTiles.get(i));
+            if (prefixes == null || prefixes.length == 0) {
+                untriggeredRuntimeTiles.set(i);
+                continue;
+            }
+            for (String prefix : prefixes) {
+                if (prefix == null || prefix.isEmpty()) {
+                    // an empty prefix matches every input
+                    untriggeredRuntimeTiles.set(i);
+                    continue;
+                }
+                triggeredRuntimeTiles.computeIfAbsent(prefix, k -> new ArrayList<>()).add(i);
+                maxPrefixLength = Math.max(maxPrefixLength, prefix.length());
+            }
+        }
+    }
+
+    /**
+     * @return All runtime tiles this router selects from, in the order they have been registered in.
+     */
+    public List<RuntimeTile> getRuntimeTiles() {
+        return runtimeTiles;
+    }
+
+    /**
+     * @param search The search string the user entered.
+     * @return The runtime tiles that have to be evaluated for the input, in the order they have been registered in.
+     */
+    public List<RuntimeTile> route(String search) {
+        final BitSet selected = (BitSet) untriggeredRuntimeTiles.clone();
+        for (int length = 1; length <= Math.min(maxPrefixLength, search.length()); length++) {
+            final List<Integer> triggered = triggeredRuntimeTiles.get(search.substring(0, length));
+            if (triggered != null) triggered.forEach(selected::set);
+        }
+
+        final List<RuntimeTile> routed = new ArrayList<>(selected.cardinality());
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            final RuntimeTile runtimeTile = runtimeTiles.get(i);
+            if (mayMatch(runtimeTile, search)) routed.add(runtimeTile);
+        }
+        return routed;
+    }
+
+    private static String[] getTriggerPrefixes(RuntimeTile runtimeTile) {
+        try {
+            return runtimeTile.getTriggerPrefixes();
+        } catch (Exception e) {
+            LOG.error("Runtime tile [{}] failed to provide its trigger prefixes", runtimeTile.getName(), e);
+            return null;
+        }
+    }
+
+    private static boolean mayMatch(RuntimeTile runtimeTile, String search) {
+        try {
+            return runtimeTile.mayMatch(search);
+        } catch (Exception e) {
+            LOG.error("Runtime tile [{}] failed to check the input", runtimeTile.getName(), e);
+            return true;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package bar.tile;
 
 import bar.Main;
 import bar.tile.action.TileAction;
+import bar.tile.search.MatchTier;
+import bar.tile.search.SearchQuery;
+import bar.tile.search.WordMatcher;
 import bar.util.Util;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -11,15 +14,19 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 public class Tile {
 
     private static final Logger LOG = LoggerFactory.getLogger(Tile.class);
 
+    private static final Pattern NORMALIZE_PATTERN = Pattern.compile("([A-Z./-])");
+
     private boolean isActive = true, exportable;
     private String id, category, label, keywords;
     private long lastActivated = -1;
     private final List<TileAction> tileActions = new ArrayList<>();
+    private volatile SearchFields searchFields;
 
     public Tile(JSONObject json) {
         try {
@@ -97,14 +104,17 @@ public class Tile {
 
     public void setCategory(String category) {
         this.category = category;
+        invalidateSearchFields();
     }
 
     public void setLabel(String label) {
         this.label = label;
+        invalidateSearchFields();
     }
 
     public void setKeywords(String keywords) {
         this.keywords = keywords;
+        invalidateSearchFields();
     }
 
     public void setLastActivated(long lastActivated) {
@@ -115,6 +125,10 @@ public class Tile {
         return exportable;
     }
 
+    public boolean isActive() {
+        return isActive;
+    }
+
     public String getId() {
         return id;
     }
@@ -135,6 +149,53 @@ public class Tile {
         return category;
     }
 
+    public String getLowercaseLabel() {
+        return getSearchFields().lowercaseLabel;
+    }
+
+    public String getLowercaseCategory() {
+        return getSearchFields().lowercaseCategory;
+    }
+
+    public String getLowercaseKeywords() {
+        return getSearchFields().lowercaseKeywords;
+    }
+
+    public String getNormalizedLabel() {
+        return getSearchFields().normalizedLabel;
+    }
+
+    public String getNormalizedCategory() {
+        return getSearchFields().normalizedCategory;
+    }
+
+    /**
+     * @return The normalized form of every single keyword. The array is shared and must not be modified.
+     */
+    public String[] getNormalizedKeywords() {
+        return getSearchFields().normalizedKeywords;
+    }
+
+    private SearchFields getSearchFields() {
+        SearchFields fields = searchFields;
+        if (fields == null) {
+            fields = new SearchFields(label, category, keywords);
+            searchFields = fields;
+        }
+        return fields;
+    }
+
+    private void invalidateSearchFields() {
+        searchFields = null;
+    }
+
+    /**
+     * @return The actions of the tile. The list is shared and must not be modified.
+     */
+    public List<TileAction> getTileActions() {
+        return tileActions;
+    }
+
     public TileAction getFirstAction() {
         if (tileActions.size() > 0) {
             return tileActions.get(0);
@@ -166,62 +227,123 @@ public class Tile {
     }
 
     public boolean matchesSearch(String search) {
+        return matchesSearch(SearchQuery.of(search));
+    }
+
+    /**
+     * Checks whether the tile matches the search. Does not allocate any memory, so the same query should be used to
+     * check many tiles.
+     *
+     * @param query The prepared search string the user entered.
+     * @return <code>true</code> if the tile matches the search.
+     */
+    public boolean matchesSearch(SearchQuery query) {
         if (!isActive) return false;
+        final SearchFields fields = getSearchFields();
 
         // check if the search is directly contained in one of the fields
-        String[] lowercasedSplitted = normalizeLowercase(search).split(" ");
-        int amountSearchFound = 0;
-        for (String s : lowercasedSplitted) {
-            if (normalizeLowercase(label).contains(s) || normalizeLowercase(category).contains(s) || normalizeLowercase(keywords).contains(s)) {
-                amountSearchFound++;
+        boolean containsAll = true;
+        for (char[] word : query.getLowercaseWords()) {
+            if (!contains(fields, word)) {
+                containsAll = false;
+                break;
             }
         }
-        if (amountSearchFound >= lowercasedSplitted.length)
-            return true;
+        if (containsAll) return true;
 
         // use smart search to check if the search is contained in one of the fields
-        if (smartSearch(normalize(category), search)) return true;
-        if (smartSearch(normalize(label), search)) return true;
-        if (keywords != null) {
-            for (String keyword : keywords.split(" "))
-                if (smartSearch(normalize(keyword), search)) return true;
-        }
+        return matchesSmartSearch(fields, query.getChars());
+    }
 
-        return false;
+    /**
+     * Same as {@link #matchesSearch(String)}, but also determines how well the tile matches the search.
+     *
+     * @param search The search string the user entered.
+     * @return The tier of the match or <code>null</code> if the tile does not match the search.
+     */
+    public MatchTier getMatchTier(String search) {
+        return getMatchTier(SearchQuery.of(search));
     }
 
-    private boolean smartSearch(String attribute, String search) {
-        int amountFound = 0;
-        boolean mayMatchNonBeginningCharacter = false;
-        char[] charArray = attribute.toCharArray();
-        for (int i = 0, charArrayLength = charArray.length; i < charArrayLength; i++) {
-            if (charArray[i] == search.charAt(amountFound)) {
-                if (i == 0 || charArray[i - 1] == ' ') {
-                    amountFound++;
-                    mayMatchNonBeginningCharacter = true;
-                    if (amountFound >= search.length()) return true;
-                    continue;
-                }
-            } else if (amountFound > 0 && charArray[i] == search.charAt(amountFound - 1)) {
-                mayMatchNonBeginningCharacter = true;
-                continue;
-            }
+    /**
+     * Same as {@link #matchesSearch(SearchQuery)}, but also determines how well the tile matches the search.
+     *
+     * @param query The prepared search string the user entered.
+     * @return The tier of the match or <code>null</code> if the tile does not match the search.
+     */
+    public MatchTier getMatchTier(SearchQuery query) {
+        if (!isActive) return null;
+        return getMatchTier(getSearchFields(), query);
+    }
+
+    /**
+     * Same as {@link #getMatchTier(SearchQuery)} for an active tile with the given fields, without creating the tile.
+     */
+    public static MatchTier getMatchTier(String label, String category, String keywords, SearchQuery query) {
+        return getMatchTier(new SearchFields(label, category, keywords), query);
+    }
 
-            if (mayMatchNonBeginningCharacter) {
-                if (charArray[i] == search.charAt(amountFound)) amountFound++;
-                else mayMatchNonBeginningCharacter = false;
+    private static MatchTier getMatchTier(SearchFields fields, SearchQuery query) {
+        final char[] lowercaseSearch = query.getLowercase();
+        if (lowercaseSearch.length > 0 && WordMatcher.startsWith(fields.lowercaseLabelChars, lowercaseSearch)) {
+            return MatchTier.EXACT_PREFIX;
+        }
+
+        boolean containsAll = true, allAtWordStart = true;
+        for (char[] word : query.getLowercaseWords()) {
+            if (containsAtWordStart(fields, word)) continue;
+            allAtWordStart = false;
+            if (!contains(fields, word)) {
+                containsAll = false;
+                break;
             }
-            if (amountFound >= search.length()) return true;
+        }
+        if (containsAll && allAtWordStart) return MatchTier.WORD_BOUNDARY;
+
+        if (matchesSmartSearch(fields, query.getChars())) return MatchTier.SMART_SEARCH;
+
+        return containsAll ? MatchTier.SUBSTRING : null;
+    }
+
+    private static boolean contains(SearchFields fields, char[] word) {
+        return WordMatcher.contains(fields.lowercaseLabelChars, word)
+               || WordMatcher.contains(fields.lowercaseCategoryChars, word)
+               || WordMatcher.contains(fields.lowercaseKeywordsChars, word);
+    }
+
+    private static boolean containsAtWordStart(SearchFields fields, char[] word) {
+        if (WordMatcher.containsAtWordStart(fields.lowercaseLabelChars, word)
+            || WordMatcher.containsAtWordStart(fields.lowercaseCategoryChars, word)
+            || WordMatcher.containsAtWordStart(fields.lowercaseKeywordsChars, word)) {
+            return true;
+        }
+        // the normalized fields are also split at upper case letters and path separators
+        if (WordMatcher.containsAtWordStart(fields.normalizedLabelChars, word)
+            || WordMatcher.containsAtWordStart(fields.normalizedCategoryChars, word)) {
+            return true;
+        }
+        for (char[] keyword : fields.normalizedKeywordsChars) {
+            if (WordMatcher.containsAtWordStart(keyword, word)) return true;
         }
         return false;
     }
 
-    private String normalize(String s) {
+    private static boolean matchesSmartSearch(SearchFields fields, char[] search) {
+        if (search.length == 0) return false;
+        if (WordMatcher.smartSearch(fields.normalizedCategoryChars, search)) return true;
+        if (WordMatcher.smartSearch(fields.normalizedLabelChars, search)) return true;
+        for (char[] keyword : fields.normalizedKeywordsChars) {
+            if (WordMatcher.smartSearch(keyword, search)) return true;
+        }
+        return false;
+    }
+
+    public static String normalize(String s) {
         if (s == null) return "";
-        return s.replaceAll("([A-Z./-])", " $1").toLowerCase();
+        return NORMALIZE_PATTERN.matcher(s).replaceAll(" $1").toLowerCase();
     }
 
-    private String normalizeLowercase(String s) {
+    public static String normalizeLowercase(String s) {
         if (s == null) return "";
         return s.toLowerCase();
     }
@@ -253,6 +375,7 @@ public class Tile {
 
     private void normalizeKeywords() {
         keywords = keywords.replaceAll(" +", " ").trim();
+        invalidateSearchFields();
     }
 
     public void cleanUpTileActions() {
@@ -343,6 +466,46 @@ public class Tile {
         return json;
     }
 
+    /**
+     * Lowercased and normalized forms of the searchable fields, so that they do not have to be computed for every search.
+     */
+    private static class SearchFields {
+        private final String lowercaseLabel, lowercaseCategory, lowercaseKeywords;
+        private final String normalizedLabel, normalizedCategory;
+        private final String[] normalizedKeywords;
+        // the same fields as character arrays, to match them without allocating memory
+        private final char[] lowercaseLabelChars, lowercaseCategoryChars, lowercaseKeywordsChars;
+        private final char[] normalizedLabelChars, normalizedCategoryChars;
+        private final char[][] normalizedKeywordsChars;
+
+        private SearchFields(String label, String category, String keywords) {
+            lowercaseLabel = normalizeLowercase(label);
+            lowercaseCategory = normalizeLowercase(category);
+            lowercaseKeywords = normalizeLowercase(keywords);
+            normalizedLabel = normalize(label);
+            normalizedCategory = normalize(category);
+            if (keywords != null) {
+                String[] splitKeywords = keywords.split(" ");
+                normalizedKeywords = new String[splitKeywords.length];
+                for (int i = 0; i < splitKeywords.length; i++) {
+                    normalizedKeywords[i] = normalize(splitKeywords[i]);
+                }
+            } else {
+                normalizedKeywords = new String[0];
+            }
+
+            lowercaseLabelChars = lowercaseLabel.toCharArray();
+            lowercaseCategoryChars = lowercaseCategory.toCharArray();
+            lowercaseKeywordsChars = lowercaseKeywords.toCharArray();
+            normalizedLabelChars = normalizedLabel.toCharArray();
+            normalizedCategoryChars = normalizedCategory.toCharArray();
+            normalizedKeywordsChars = new char[normalizedKeywords.length][];
+            for (int i = 0; i < normalizedKeywords.length; i++) {
+                normalizedKeywordsChars[i] = normalizedKeywords[i].toCharArray();
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "Tile{" +
@@ -0,0 +1,160 @@
+package bar.tile;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+/**
+ * The sections of a tile file. The tiles, tile generators and categories are either created while the file is read,
+ * see {@link TileFileReader}, or from the JSON of their sections once they are accessed.
+ */
+public class TileFileContent {
+
+    private final JSONObject root;
+    private List<Tile> tiles;
+    private final Map<String, List<Tile>> cloudTiles = new LinkedHashMap<>();
+    private List<TileGenerator> tileGenerators;
+    private List<TileCategory> categories;
+
+    /**
+     * @param root The sections of the file that have not been read into objects.
+     */
+    public TileFileContent(JSONObject root) {
+        this.root = root;
+    }
+
+    public JSONObject getRoot() {
+        return root;
+    }
+
+    public List<Tile> getTiles() {
+        if (tiles == null) tiles = createTiles(root.optJSONArray("tiles"));
+        return tiles;
+    }
+
+    public void setTiles(List<Tile> tiles) {
+        this.tiles = tiles;
+    }
+
+    /**
+     * @param key The key of the tiles inside the <code>cloudTiles</code> section.
+     */
+    public List<Tile> getCloudTiles(String key) {
+        final List<Tile> tiles = cloudTiles.get(key);
+        if (tiles != null) return tiles;
+        final JSONObject cloudTilesJson = root.optJSONObject("cloudTiles");
+        return cloudTilesJson != null ? createTiles(cloudTilesJson.optJSONArray(key)) : new ArrayList<>();
+    }
+
+    public void setCloudTiles(String key, List<Tile> tiles) {
+        cloudTiles.put(key, tiles);
+    }
+
+    /**
+     * @return The cloud tiles that have been set, by their key inside the <code>cloudTiles</code> section.
+     */
+    public Map<String, List<Tile>> getCloudTileSections() {
+        return cloudTiles;
+    }
+
+    public List<TileGenerator> getTileGenerators() {
+        if (tileGenerators != null) return tileGenerators;
+        final List<TileGenerator> created = new ArrayList<>();
+        final JSONArray tileGeneratorsArray = root.optJSONArray("tile-generators");
+        if (tileGeneratorsArray != null) {
+            for (int i = 0; i < tileGeneratorsArray.length(); i++) {
+                final TileGenerator tileGenerator = createTileGenerator(tileGeneratorsArray.optJSONObject(i));
+                if (tileGenerator != null) created.add(tileGenerator);
+            }
+        }
+        return created;
+    }
+
+    public void setTileGenerators(List<TileGenerator> tileGenerators) {
+        this.tileGenerators = tileGenerators;
+    }
+
+    public List<TileCategory> getCategories() {
+        if (categories != null) return categories;
+        final List<TileCategory> created = new ArrayList<>();
+        final JSONArray categoriesArray = root.optJSONArray("categories");
+        if (categoriesArray != null) {
+            for (int i = 0; i < categoriesArray.length(); i++) {
+                final TileCategory category = createCategory(categoriesArray.optJSONObject(i));
+                if (category != null) created.add(category);
+            }
+        }
+        return created;
+    }
+
+    public void setCategories(List<TileCategory> categories) {
+        this.categories = categories;
+    }
+
+    /**
+     * @return The root without the tiles and the cloud tiles that have been set, but with the tile generators and
+     * categories as JSON, e.g. to be stored next to the tiles in a {@link TileSnapshot}.
+     */
+    public JSONObject getOtherSections() {
+        final JSONObject sections = copy(root);
+        sections.remove("tiles");
+        final JSONObject cloudTilesJson = root.optJSONObject("cloudTiles");
+        if (cloudTilesJson != null && !cloudTiles.isEmpty()) {
+            final JSONObject remainingCloudTiles = copy(cloudTilesJson);
+            cloudTiles.keySet().forEach(remainingCloudTiles::remove);
+            sections.put("cloudTiles", remainingCloudTiles);
+        }
+        if (tileGenerators != null) {
+            final JSONArray tileGeneratorsArray = new JSONArray();
+            tileGenerators.forEach(tileGenerator -> tileGeneratorsArray.put(tileGenerator.toJSON()));
+            sections.put("tile-generators", tileGeneratorsArray);
+        }
+        if (categories != null) {
+            final JSONArray categoriesArray = new JSONArray();
+            categories.forEach(category -> categoriesArray.put(category.toJSON()));
+            sections.put("categories", categoriesArray);
+        }
+        return sections;
+    }
+
+    private static JSONObject copy(JSONObject json) {
+        final JSONObject copy = new JSONObject();
+        for (String key : json.keySet()) {
+            copy.put(key, json.get(key));
+        }
+        return copy;
+    }
+
+    private static List<Tile> createTiles(JSONArray tilesArray) {
+        final List<Tile> created = new ArrayList<>();
+        if (tilesArray != null) {
+            for (int i = 0; i < tilesArray.length(); i++) {
+                final Tile tile = createTile(tilesArray.optJSONObject(i));
+                if (tile != null) created.add(tile);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * @return The tile or <code>null</code> if the JSON is not a valid tile.
+     */
+    static Tile createTile(JSONObject json) {
+        if (json == null) return null;
+        final Tile tile = new Tile(json);
+        return tile.isValid() ? tile : null;
+    }
+
+    static TileGenerator createTileGenerator(JSONObject json) {
+        if (json == null) return null;
+        final TileGenerator tileGenerator = new TileGenerator(json);
+        return tileGenerator.isValid() ? tileGenerator : null;
+    }
+
+    static TileCategory createCategory(JSONObject json) {
+        if (json == null) return null;
+        final TileCategory category = new TileCategory(json);
+        return category.isValid() ? category : null;
+    }
+}
@@ -0,0 +1,155 @@
+package bar.tile;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reads a tile file from a stream, without creating the JSON of the whole file first.<br>
+ * The arrays of the tiles, cloud tiles, tile generators and categories are read element by element: every element is
+ * parsed as a {@link JSONObject} and turned into its object right away, so only the JSON of a single tile exists at a
+ * time. All other sections are small and are read into the root of the {@link TileFileContent}.
+ */
+public class TileFileReader {
+
+    private TileFileReader() {
+    }
+
+    /**
+     * @throws JSONException If the file is not a valid JSON object.
+     */
+    public static TileFileContent read(Reader reader) {
+        final JSONTokener tokener = new JSONTokener(reader);
+        final JSONObject root = new JSONObject();
+        final TileFileContent content = new TileFileContent(root);
+
+        readObject(tokener, root, key -> {
+            switch (key) {
+                case "tiles":
+                    if (!isArray(tokener)) return false;
+                    content.setTiles(readArray(tokener, TileFileContent::createTile));
+                    return true;
+                case "tile-generators":
+                    if (!isArray(tokener)) return false;
+                    content.setTileGenerators(readArray(tokener, TileFileContent::createTileGenerator));
+                    return true;
+                case "categories":
+                    if (!isArray(tokener)) return false;
+                    content.setCategories(readArray(tokener, TileFileContent::createCategory));
+                    return true;
+                case "cloudTiles":
+                    if (!isObject(tokener)) return false;
+                    final JSONObject cloudTiles = new JSONObject();
+                    readObject(tokener, cloudTiles, cloudKey -> {
+                        if (!isArray(tokener)) return false;
+                        content.setCloudTiles(cloudKey, readArray(tokener, TileFileContent::createTile));
+                        return true;
+                    });
+                    root.put("cloudTiles", cloudTiles);
+                    return true;
+                default:
+                    return false;
+            }
+        });
+
+        return content;
+    }
+
+    /**
+     * Reads an object with the same rules as {@link JSONObject#JSONObject(JSONTokener)}.
+     *
+     * @param fieldReader Reads the value of a field and returns <code>true</code>, or returns <code>false</code> to
+     *                    read the value into the target object.
+     */
+    private static void readObject(JSONTokener tokener, JSONObject target, Function<String, Boolean> fieldReader) {
+        if (tokener.nextClean() != '{') throw tokener.syntaxError("A JSONObject text must begin with '{'");
+        // the keys of the values that have been read by the field reader instead of into the target object
+        final Set<String> readKeys = new HashSet<>();
+        while (true) {
+            char c = tokener.nextClean();
+            if (c == 0) throw tokener.syntaxError("A JSONObject text must end with '}'");
+            if (c == '}') return;
+            tokener.back();
+            final String key = tokener.nextValue().toString();
+
+            if (tokener.nextClean() != ':') throw tokener.syntaxError("Expected a ':' after a key");
+            // like org.json, a key may only be repeated if its earlier value is null
+            if (readKeys.contains(key) || target.opt(key) != null) {
+                throw tokener.syntaxError("Duplicate key \"" + key + "\"");
+            }
+            if (fieldReader.apply(key)) readKeys.add(key);
+            else target.put(key, tokener.nextValue());
+
+            c = tokener.nextClean();
+            if (c == ';' || c == ',') {
+                if (tokener.nextClean() == '}') return;
+                tokener.back();
+            } else if (c == '}') {
+                return;
+            } else {
+                throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Reads an array with the same rules as {@link org.json.JSONArray#JSONArray(JSONTokener)}, elements that are not
+     * objects are skipped.
+     *
+     * @param create Creates the object of an element or returns <code>null</code> to skip it.
+     */
+    private static <T> List<T> readArray(JSONTokener tokener, Function<JSONObject, T> create) {
+        final List<T> elements = new ArrayList<>();
+        if (tokener.nextClean() != '[') throw tokener.syntaxError("A JSONArray text must start with '['");
+        char c = tokener.nextClean();
+        if (c == 0) throw tokener.syntaxError("Expected a ',' or ']'");
+        if (c == ']') return elements;
+        tokener.back();
+        while (true) {
+            if (tokener.nextClean() != ',') {
+                tokener.back();
+                final Object value = tokener.nextValue();
+                if (value instanceof JSONObject) {
+                    final T element = create.apply((JSONObject) value);
+                    if (element != null) elements.add(element);
+                }
+            } else {
+                // an empty element, read as null by org.json
+                tokener.back();
+            }
+
+            c = tokener.nextClean();
+            if (c == ',') {
+                c = tokener.nextClean();
+                if (c == 0) throw tokener.syntaxError("Expected a ',' or ']'");
+                if (c == ']') return elements;
+                tokener.back();
+            } else if (c == ']') {
+                return elements;
+            } else {
+                throw tokener.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+
+    private static boolean isArray(JSONTokener tokener) {
+        return peek(tokener) == '[';
+    }
+
+    private static boolean isObject(JSONTokener tokener) {
+        return peek(tokener) == '{';
+    }
+
+    private static char peek(JSONTokener tokener) {
+        final char c = tokener.nextClean();
+        tokener.back();
+        return c;
+    }
+}
@@ -1,11 +1,14 @@
 package bar.tile;
 
+import bar.util.Util;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class TileGenerator {
 
@@ -109,16 +112,100 @@ public class TileGenerator {
         keywords = keywords.replaceAll(" +", " ").trim();
     }
 
-    public List<Tile> generateTiles() {
-        List<Tile> generatedTiles = new ArrayList<>();
+    /**
+     * @param directoryVisitor Called with every directory that is walked, from several threads at once.
+     * @return The files of all generators, in the order of the generators. The generators list their files in parallel.
+     */
+    public List<File> generateFiles(Consumer<Path> directoryVisitor) {
+        return generators.parallelStream()
+                .flatMap(generator -> generator.generateFiles(directoryVisitor).stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Same as {@link #generateFiles(Consumer)}, but only for the generators that are or are not resolved lazily, see
+     * {@link TileGeneratorGenerator#isResolvedLazily()}.
+     */
+    public List<File> generateFiles(boolean resolvedLazily, Consumer<Path> directoryVisitor) {
+        return generators.parallelStream()
+                .filter(generator -> generator.isResolvedLazily() == resolvedLazily)
+                .flatMap(generator -> generator.generateFiles(directoryVisitor).stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return The files of all generators in the directory, which has to be located inside the root of a generator.
+     */
+    public List<File> generateFiles(File directory, Consumer<Path> directoryVisitor) {
+        final List<File> files = new ArrayList<>();
         for (TileGeneratorGenerator generator : generators) {
-            generatedTiles.addAll(generator.generateTiles());
+            files.addAll(generator.generateFiles(directory, directoryVisitor));
         }
-        for (Tile tile : generatedTiles) {
-            tile.setCategory(category);
-            tile.addKeyword(keywords);
+        return files;
+    }
+
+    /**
+     * @return <code>true</code> if one of the generators creates a tile for the file.
+     */
+    public boolean accepts(File file) {
+        return generators.stream().anyMatch(generator -> generator.accepts(file));
+    }
+
+    /**
+     * @return Identifies the settings the tiles of this generator are generated with, see {@link GeneratedTileCache}.
+     */
+    public String getFingerprint() {
+        final StringBuilder fingerprint = new StringBuilder()
+                .append(category).append('\n')
+                .append(keywords).append('\n')
+                .append(Util.describeFileWalkerSettings());
+        for (TileGeneratorGenerator generator : generators) {
+            fingerprint.append('\n').append(generator.getType()).append(' ').append(generator.getParam1()).append(' ').append(generator.getParam2());
         }
-        return generatedTiles;
+        return fingerprint.toString();
+    }
+
+    /**
+     * @return The current modification times of the root directories of the generators.
+     */
+    public Map<String, Long> getRootModificationTimes() {
+        final Map<String, Long> times = new LinkedHashMap<>();
+        for (TileGeneratorGenerator generator : generators) {
+            if (generator.isFileType() && generator.getParam1() != null) {
+                final File root = new File(generator.getParam1()).getAbsoluteFile();
+                times.put(root.getPath(), root.lastModified());
+            }
+        }
+        return times;
+    }
+
+    public Tile createTile(File file) {
+        return GeneratedTileStore.createTile(file, category, keywords);
+    }
+
+    /**
+     * Adds the files to the store, with the category and keywords of this tile generator.
+     */
+    public void generateTiles(GeneratedTileStore.Builder store, List<File> files) {
+        for (File file : files) {
+            store.addFile(file, category, keywords);
+        }
+    }
+
+    /**
+     * Adds the files of the generators that are resolved lazily to the store while their directories are walked,
+     * without listing all files first. The generators walk their directories in parallel.
+     *
+     * @param directoryVisitor Called with every directory that is walked, from several threads at once.
+     */
+    public void generateLazyTiles(GeneratedTileStore.Builder store, Consumer<Path> directoryVisitor) {
+        generators.parallelStream()
+                .filter(TileGeneratorGenerator::isResolvedLazily)
+                .forEach(generator -> generator.walkFiles(files -> {
+                    synchronized (store) {
+                        generateTiles(store, files);
+                    }
+                }, directoryVisitor));
     }
 
     public JSONObject toJSON() {
@@ -1,15 +1,17 @@
 package bar.tile;
 
-import bar.tile.action.TileAction;
+import bar.util.FileWalker;
 import bar.util.Util;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class TileGeneratorGenerator {
 
@@ -74,56 +76,130 @@ public class TileGeneratorGenerator {
     }
 
     public List<Tile> generateTiles() {
-        List<Tile> tiles = new ArrayList<>();
+        GeneratedTileStore.Builder store = new GeneratedTileStore.Builder();
+        for (File file : generateFiles()) {
+            store.addFile(file, "", "");
+        }
+        return new ArrayList<>(store.build().asList());
+    }
+
+    /**
+     * @return The files to create tiles for, see {@link GeneratedTileStore.Builder#addFile(File, String, String)}.
+     */
+    public List<File> generateFiles() {
+        return generateFiles(directory -> {
+        });
+    }
+
+    /**
+     * @param directoryVisitor Called with every directory that is walked, e.g. to watch it for changes.
+     */
+    public List<File> generateFiles(Consumer<Path> directoryVisitor) {
+        return generateFiles(null, directoryVisitor);
+    }
+
+    /**
+     * Lists the files of a directory inside the root of this generator, e.g. after it has been created.
+     *
+     * @param directory        The directory or <code>null</code> to list all files of the generator.
+     * @param directoryVisitor Called with every directory that is walked.
+     */
+    public List<File> generateFiles(File directory, Consumer<Path> directoryVisitor) {
+        List<File> files = new ArrayList<>();
 
         try {
             switch (getType()) {
                 case "file":
-                    List<File> files;
-                    if (getParam2() != null) {
-                        files = Util.recursivelyListFiles(new File(getParam1()), getParam2().split(" +"));
-                    } else {
-                        files = Util.recursivelyListFiles(new File(getParam1()));
-                    }
-                    for (int i = files.size() - 1; i >= 0; i--) {
-                        String name = files.get(i).getName();
-                        if (name.contains(".")) {
-                            String extension = name.substring(name.lastIndexOf(".") + 1);
-                            if (extension.length() > 10) {
-                                files.remove(i);
-                            }
-                        } else {
-                            files.remove(i);
-                        }
-                    }
-                    if (files.size() > 0) {
-                        for (File file : files) {
-                            if (file != null) {
-                                Tile tile = new Tile(fileTypeNameGenerator(file));
-                                tile.addAction(TileAction.getInstance("file", file.getAbsolutePath()));
-                                for (String s : file.getAbsolutePath().replaceAll("[A-Z]:", "").replaceAll("[/\\\\.]+", " ").replaceAll(" +", " ").trim().split(" ")) {
-                                    tile.addKeyword(s);
-                                }
-                                tiles.add(tile);
-                            }
-                        }
-                    }
+                case "file-index":
+                    final File root = new File(getParam1());
+                    final FileWalker walker = Util.createFileWalker(getExtensions()).setDirectoryVisitor(directoryVisitor);
+                    // the files of an index are not turned into tiles up front, so they are not limited
+                    if (isResolvedLazily()) walker.setLimit(Integer.MAX_VALUE);
+                    files = directory == null ? walker.walk(root) : walker.walk(root, directory);
+                    files.removeIf(file -> !hasFileTypeName(file.getName()));
                     break;
             }
         } catch (Exception e) {
             LOG.error("error ", e);
         }
 
-        return tiles;
+        return files;
+    }
+
+    /**
+     * Passes the files of the generator to the consumer while the directories are walked, instead of listing all of
+     * them first. The consumer is called once per directory, from several threads at once. The file limit is not
+     * applied.
+     *
+     * @param directoryVisitor Called with every directory that is walked.
+     */
+    public void walkFiles(Consumer<List<File>> fileConsumer, Consumer<Path> directoryVisitor) {
+        try {
+            switch (getType()) {
+                case "file":
+                case "file-index":
+                    Util.createFileWalker(getExtensions()).setDirectoryVisitor(directoryVisitor).walk(files -> {
+                        files.removeIf(file -> !hasFileTypeName(file.getName()));
+                        if (!files.isEmpty()) fileConsumer.accept(files);
+                    }, new File(getParam1()));
+                    break;
+            }
+        } catch (Exception e) {
+            LOG.error("error ", e);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if {@link #generateFiles()} would list the file, regardless of the file limit.
+     */
+    public boolean accepts(File file) {
+        if (!isFileType() || getParam1() == null) return false;
+        return hasFileTypeName(file.getName()) && Util.createFileWalker(getExtensions()).accepts(new File(getParam1()), file);
+    }
+
+    /**
+     * @return <code>true</code> if the generator lists files below a root directory.
+     */
+    public boolean isFileType() {
+        return "file".equals(getType()) || "file-index".equals(getType());
+    }
+
+    /**
+     * @return <code>true</code> if the files of the generator are only kept as a path index that is searched when the
+     * user enters a search, instead of being indexed as tiles. This allows for directory trees of any size, such as a
+     * whole home directory.
+     */
+    public boolean isResolvedLazily() {
+        return "file-index".equals(getType());
+    }
+
+    private String[] getExtensions() {
+        return getParam2() != null ? getParam2().split(" +") : new String[0];
+    }
+
+    /**
+     * Only files with an extension of up to 10 characters are turned into tiles.
+     */
+    private static boolean hasFileTypeName(String name) {
+        if (!name.contains(".")) return false;
+        return name.length() - name.lastIndexOf(".") - 1 <= 10;
     }
 
     public static String fileTypeNameGenerator(File file) {
         if (file == null) return "";
-        if (file.isDirectory() || !file.getName().contains(".")) {
-            return file.getName();
+        if (file.isDirectory()) return file.getName();
+        return fileTypeNameGenerator(file.getName());
+    }
+
+    /**
+     * Same as {@link #fileTypeNameGenerator(File)} for a file name that is known not to be a directory.
+     */
+    public static String fileTypeNameGenerator(String name) {
+        if (!name.contains(".")) {
+            return name;
         } else {
-            String filename = file.getName().replaceAll("(.+)\\.[^.]+", "$1");
-            String extension = file.getName().replaceAll(".+\\.([^.]+)", "$1").toUpperCase();
+            String filename = name.replaceAll("(.+)\\.[^.]+", "$1");
+            String extension = name.replaceAll(".+\\.([^.]+)", "$1").toUpperCase();
             return filename + " (" + extension + ")";
         }
     }
@@ -133,6 +209,6 @@ public class TileGeneratorGenerator {
     }
 
     public final static String[] GENERATOR_TYPES = {
-            "file"
+            "file", "file-index"
     };
 }
@@ -4,9 +4,16 @@ import bar.logic.Settings;
 import bar.tile.action.TileAction;
 import bar.tile.custom.*;
 import bar.tile.custom.menter.MenterEvaluatorTile;
+import bar.tile.search.ConcatenatedTileList;
+import bar.tile.search.FrecencyStore;
+import bar.tile.search.IncrementalTileSearch;
+import bar.tile.search.QuerySelectionCache;
+import bar.tile.search.SearchResultCache;
+import bar.tile.search.TileIndex;
+import bar.tile.search.TileRanking;
 import bar.ui.TrayUtil;
+import bar.util.JsonObjectWriter;
 import bar.util.Util;
-import org.apache.commons.io.FileUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -14,11 +21,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.*;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -27,26 +42,65 @@ public class TileManager {
     private static final Logger LOG = LoggerFactory.getLogger(TileManager.class);
 
     private final static int TILE_FORMAT_VERSION = 1;
+    // the amount of tiles per match tier that are sorted before the user scrolls through the results
+    private final static int INITIAL_SORTED_RESULTS = 16;
+    // the amount of recent inputs the results are kept for, more than the 30 inputs of the input history
+    private final static int RESULT_CACHE_SIZE = 64;
+    // larger results match most of the tiles, they are fast to search again and would keep many generated tiles alive
+    private final static int MAX_CACHED_RESULT_SIZE = 1000;
+    private final FrecencyStore frecencyStore = new FrecencyStore();
+    private final QuerySelectionCache querySelectionCache = new QuerySelectionCache();
+    private final SearchResultCache searchResultCache = new SearchResultCache(RESULT_CACHE_SIZE);
 
     private final PluginTileLoader plugins;
     private final TileBackups tileBackups;
-
-    private final List<Tile> tiles = new ArrayList<>();
+    private final TileSnapshot tileSnapshot;
+
+    // modifications are written to the tile file after this delay, together with all further modifications until then
+    private final static long SAVE_DELAY = 1000;
+    // the tile managers with modifications that have not been written yet, written by a single shutdown hook
+    private final static Set<TileManager> UNSAVED_TILE_MANAGERS = ConcurrentHashMap.newKeySet();
+    // the latest saved state that has not been written yet
+    private final AtomicReference<SavedTiles> unsavedTiles = new AtomicReference<>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private final Object saveStateLock = new Object();
+    private final Object saveLock = new Object();
+    private final ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "tile-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // the tile lists are modified by the web server, the generator and the cloud sync threads while the evaluation
+    // threads read them, so every modification publishes a new copy. searches only read from the index snapshots.
+    private final List<Tile> tiles = new CopyOnWriteArrayList<>();
     private final List<RuntimeTile> runtimeTiles = new ArrayList<>();
-    private final List<Tile> generatedTiles = new ArrayList<>();
-    private final List<Tile> synchronizedCloudTiles = new ArrayList<>();
-    private final List<Tile> unsynchronizedCloudTiles = new ArrayList<>();
-    private final List<Tile> deletedCloudTiles = new ArrayList<>();
-    private final List<TileGenerator> tileGenerators = new ArrayList<>();
+    private final List<Tile> synchronizedCloudTiles = new CopyOnWriteArrayList<>();
+    private final List<Tile> unsynchronizedCloudTiles = new CopyOnWriteArrayList<>();
+    private final List<Tile> deletedCloudTiles = new CopyOnWriteArrayList<>();
+    private final List<TileGenerator> tileGenerators = new CopyOnWriteArrayList<>();
+    // the generated tiles of every tile generator, updated incrementally while the files change
+    private final List<GeneratedTileSet> generatedTileSets = new CopyOnWriteArrayList<>();
+    private final GeneratedTileWatcher generatedTileWatcher = new GeneratedTileWatcher();
+    // the versions of the removed generated tile sets, so that the version of all tiles never decreases
+    private final AtomicLong removedGeneratedTileSetsVersion = new AtomicLong();
     private final List<InputEvaluatedListener> onInputEvaluatedListeners = new ArrayList<>();
     private final List<TileCategory> categories = new ArrayList<>();
     private final List<String> disabledRuntimeTiles = new ArrayList<>();
+    private final TileIndex tileIndex = new TileIndex();
+    private final TileIndex synchronizedCloudTileIndex = new TileIndex();
+    private final TileIndex unsynchronizedCloudTileIndex = new TileIndex();
+    private final IncrementalTileSearch tileSearch = new IncrementalTileSearch(tileIndex);
+    private final IncrementalTileSearch synchronizedCloudTileSearch = new IncrementalTileSearch(synchronizedCloudTileIndex);
+    private final IncrementalTileSearch unsynchronizedCloudTileSearch = new IncrementalTileSearch(unsynchronizedCloudTileIndex);
     private File tileFile;
     private boolean isFirstLaunch = false;
 
     private CloudAccess cloudAccess;
 
     public TileManager() {
+        // started first, so that the directories of the generated tiles are watched from their first scan on
+        generatedTileWatcher.start();
         plugins = new PluginTileLoader();
         plugins.loadPlugins();
         findTilesFile();
@@ -56,71 +110,179 @@ public class TileManager {
             createSettingsTiles();
             isFirstLaunch = true;
             tileBackups = new TileBackups(tileFile);
+            tileSnapshot = new TileSnapshot(tileFile);
         } else {
             tileBackups = new TileBackups(tileFile);
+            tileSnapshot = new TileSnapshot(tileFile);
             readTilesFromFile();
         }
         LOG.info("Is first launch: [{}]", isFirstLaunch);
         addRuntimeTiles();
+        rebuildIndexes();
+    }
+
+    /**
+     * Creates a tile manager without reading the tile file and without the built-in runtime tiles. Tiles can be loaded
+     * using {@link #loadTilesFromJson(JSONObject)}. Used to run the tile search outside the launcher, e.g. in the
+     * benchmarks module.
+     *
+     * @param tileFile The file the tiles would be saved to.
+     * @param plugins  The plugins to load the plugin runtime tiles from.
+     */
+    public TileManager(File tileFile, PluginTileLoader plugins) {
+        this.plugins = plugins;
+        this.tileFile = tileFile;
+        this.tileBackups = new TileBackups(tileFile);
+        this.tileSnapshot = new TileSnapshot(tileFile);
+        rebuildIndexes();
     }
 
     public boolean isFirstLaunch() {
         return isFirstLaunch;
     }
 
-    private Thread currentEvaluationThread = null;
+    private final EvaluationScheduler evaluationScheduler = new EvaluationScheduler(2);
+    private final RuntimeTileEvaluator runtimeTileEvaluator = new RuntimeTileEvaluator();
+    private RuntimeTileRouter runtimeTileRouter = new RuntimeTileRouter(Collections.emptyList());
     private final AtomicReference<Long> lastInputEvaluated = new AtomicReference<>(System.currentTimeMillis());
 
     public void evaluateUserInput(String input) {
         try {
-            new Thread(() -> {
-                if (currentEvaluationThread != null) {
-                    currentEvaluationThread.interrupt();
-                }
-                if (input.length() <= 1) {
-                    setEvaluationResults(new ArrayList<>());
-                } else {
-                    currentEvaluationThread = evaluate(input);
-                    currentEvaluationThread.start();
-                }
-            }).start();
+            lastInputEvaluated.set(System.currentTimeMillis());
+            if (input.length() <= 1) {
+                evaluationScheduler.schedule(evaluation -> setEvaluationResults(evaluation, new ArrayList<>()));
+            } else {
+                evaluationScheduler.schedule(evaluation -> evaluate(evaluation, input));
+            }
         } catch (Exception e) {
             LOG.error("error ", e);
         }
     }
 
-    private void setEvaluationResults(List<Tile> tiles) {
-        onInputEvaluatedListeners.forEach(listener -> listener.onInputEvaluated(tiles));
+    private void setEvaluationResults(EvaluationScheduler.Evaluation evaluation, List<Tile> tiles) {
+        evaluation.publish(() -> onInputEvaluatedListeners.forEach(listener -> listener.onInputEvaluated(tiles)));
     }
 
-    private Thread evaluate(String input) {
-        lastInputEvaluated.set(System.currentTimeMillis());
-        return new Thread(() -> {
-            List<Tile> matchingTiles = new ArrayList<>();
+    private void updateEvaluationResults(EvaluationScheduler.Evaluation evaluation, List<Tile> tiles) {
+        evaluation.publish(() -> onInputEvaluatedListeners.forEach(listener -> listener.onInputEvaluationUpdated(tiles)));
+    }
 
-            searchTiles(tiles, matchingTiles, input);
-            searchTiles(unsynchronizedCloudTiles, matchingTiles, input);
-            searchTiles(synchronizedCloudTiles, matchingTiles, input);
-            searchTiles(generatedTiles, matchingTiles, input);
+    private void evaluate(EvaluationScheduler.Evaluation evaluation, String input) {
+        // read the version before searching, so that modifications during the search invalidate the result
+        long tileSetVersion = getTileSetVersion();
+        List<Tile> cachedTiles = searchResultCache.get(input, tileSetVersion);
+        boolean publishedSelectedTiles = false;
+        List<Tile> matchingTiles;
+        if (cachedTiles != null) {
+            matchingTiles = cachedTiles;
+        } else {
+            // the tiles the user has selected for this input before are displayed before the index is searched
+            List<Tile> selectedTiles = findPreviouslySelectedTiles(input);
+            if (!selectedTiles.isEmpty()) {
+                setEvaluationResults(evaluation, selectedTiles);
+                publishedSelectedTiles = true;
+            }
+            matchingTiles = findMatchingTiles(input, selectedTiles);
+            if (matchingTiles.size() <= MAX_CACHED_RESULT_SIZE) {
+                searchResultCache.put(input, tileSetVersion, matchingTiles);
+            }
+        }
 
-            runtimeTiles.stream()
-                    .map(runtimeTile -> runtimeTile.generateTiles(input, lastInputEvaluated))
-                    .forEach(matchingTiles::addAll);
+        if (evaluation.isStale()) return;
+        // the local tiles are displayed right away, the runtime tiles are appended as soon as they are generated
+        if (publishedSelectedTiles) updateEvaluationResults(evaluation, matchingTiles);
+        else setEvaluationResults(evaluation, matchingTiles);
 
-            plugins.getPluginRuntimeTiles().stream()
-                    .filter(t -> !disabledRuntimeTiles.contains(t.getName()))
-                    .map(runtimeTile -> runtimeTile.generateTiles(input, lastInputEvaluated))
-                    .forEach(matchingTiles::addAll);
+        List<RuntimeTile> routedRuntimeTiles = getRuntimeTileRouter().route(input);
 
-            setEvaluationResults(matchingTiles);
+        runtimeTileEvaluator.evaluate(evaluation, input, routedRuntimeTiles, lastInputEvaluated, runtimeMatches -> {
+            ConcatenatedTileList allMatchingTiles = new ConcatenatedTileList();
+            allMatchingTiles.addSegment(matchingTiles);
+            allMatchingTiles.addSegment(runtimeMatches);
+            updateEvaluationResults(evaluation, allMatchingTiles);
         });
     }
 
-    private void searchTiles(List<Tile> tiles, List<Tile> matchingTiles, String input) {
-        tiles.stream()
-                .filter(tile -> tile.matchesSearch(input))
-                .sorted(Comparator.comparing(Tile::getLastActivated).reversed())
-                .forEach(matchingTiles::add);
+    /**
+     * Searches the local, cloud and generated tiles. The runtime tiles are not evaluated. The result cache is neither
+     * used nor filled.
+     *
+     * @param input The search string the user entered.
+     * @return The matching tiles, best match first.
+     */
+    public ConcatenatedTileList findMatchingTiles(String input) {
+        return findMatchingTiles(input, findPreviouslySelectedTiles(input));
+    }
+
+    private ConcatenatedTileList findMatchingTiles(String input, List<Tile> selectedTiles) {
+        // tiles that match equally well are ordered by how frequently and recently they have been used
+        TileRanking<FrecencyStore.Rank> ranking = new TileRanking<>(frecencyStore::getCurrentRank, INITIAL_SORTED_RESULTS);
+        ranking.exclude(selectedTiles);
+        ranking.addAll(tileSearch.search(input));
+        ranking.addAll(unsynchronizedCloudTileSearch.search(input));
+        ranking.addAll(synchronizedCloudTileSearch.search(input));
+        for (GeneratedTileSet generatedTileSet : generatedTileSets) {
+            ranking.addAll(generatedTileSet.search(input));
+        }
+
+        ConcatenatedTileList matchingTiles = new ConcatenatedTileList();
+        matchingTiles.addSegment(selectedTiles);
+        ranking.appendTo(matchingTiles);
+        return matchingTiles;
+    }
+
+    /**
+     * @return The tiles that have been executed after entering the input before and that still match it, most recently
+     * selected first.
+     */
+    private List<Tile> findPreviouslySelectedTiles(String input) {
+        List<String> tileIds = querySelectionCache.getSelections(input);
+        if (tileIds.isEmpty()) return Collections.emptyList();
+        List<Tile> selectedTiles = new ArrayList<>(tileIds.size());
+        for (String tileId : tileIds) {
+            Tile tile = findIndexedTile(tileId);
+            if (tile != null && tile.matchesSearch(input)) selectedTiles.add(tile);
+        }
+        return selectedTiles;
+    }
+
+    /**
+     * @return A number that changes every time a tile is added, removed or edited, the generated files change, the
+     * cloud tiles are synchronized or a tile is executed (which changes the ranking).
+     */
+    private long getTileSetVersion() {
+        // all versions only increase, so their sum changes whenever one of them does
+        long version = tileIndex.getVersion() + removedGeneratedTileSetsVersion.get()
+                       + synchronizedCloudTileIndex.getVersion() + unsynchronizedCloudTileIndex.getVersion()
+                       + frecencyStore.getVersion() + querySelectionCache.getVersion();
+        for (GeneratedTileSet generatedTileSet : generatedTileSets) {
+            version += generatedTileSet.getVersion();
+        }
+        return version;
+    }
+
+    private Tile findIndexedTile(String tileId) {
+        Tile tile = tileIndex.findById(tileId);
+        if (tile == null) tile = unsynchronizedCloudTileIndex.findById(tileId);
+        if (tile == null) tile = synchronizedCloudTileIndex.findById(tileId);
+        for (GeneratedTileSet generatedTileSet : generatedTileSets) {
+            if (tile != null) break;
+            tile = generatedTileSet.findById(tileId);
+        }
+        return tile;
+    }
+
+    private synchronized RuntimeTileRouter getRuntimeTileRouter() {
+        List<RuntimeTile> activeRuntimeTiles = new ArrayList<>(runtimeTiles);
+        plugins.getPluginRuntimeTiles().stream()
+                .filter(t -> !disabledRuntimeTiles.contains(t.getName()))
+                .forEach(activeRuntimeTiles::add);
+
+        // the router only has to be rebuilt if runtime tiles have been enabled, disabled or (re)loaded
+        if (!runtimeTileRouter.getRuntimeTiles().equals(activeRuntimeTiles)) {
+            runtimeTileRouter = new RuntimeTileRouter(activeRuntimeTiles);
+        }
+        return runtimeTileRouter;
     }
 
     private final static String[] possibleTilesFiles = {
@@ -149,10 +311,18 @@ public class TileManager {
             return;
         }
         try {
-            final String fileContent = FileUtils.readFileToString(tileFile, "UTF-8");
-
-            JSONObject tilesRoot = new JSONObject(fileContent);
-            loadTilesFromJson(tilesRoot);
+            // the snapshot is only used if the tile file has not been modified since the last save
+            final TileFileContent snapshot = tileSnapshot.read();
+            if (snapshot != null) {
+                loadTiles(snapshot);
+            } else {
+                final TileFileContent content;
+                try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(tileFile), StandardCharsets.UTF_8))) {
+                    content = TileFileReader.read(reader);
+                }
+                loadTiles(content);
+                tileSnapshot.write(content);
+            }
 
             // only create a backup if the file was loaded successfully,
             // we don't want to create a backup if the file is corrupted
@@ -166,11 +336,15 @@ public class TileManager {
                 readTilesFromFile();
             }
         }
-        regenerateGeneratedTiles();
         createSettingsTiles();
     }
 
     public void loadTilesFromJson(JSONObject tilesRoot) {
+        loadTiles(new TileFileContent(tilesRoot));
+    }
+
+    private void loadTiles(TileFileContent content) {
+        JSONObject tilesRoot = content.getRoot();
         int version = tilesRoot.optInt("version", 0);
         if (version != TILE_FORMAT_VERSION) {
             tileBackups.createBackup();
@@ -189,40 +363,15 @@ public class TileManager {
         tileGenerators.clear();
         categories.clear();
 
-        JSONArray tilesArray = tilesRoot.optJSONArray("tiles");
-        createTilesFromJsonArray(tilesArray, tiles);
-
-        JSONObject cloudTiles = tilesRoot.optJSONObject("cloudTiles");
-        if (cloudTiles != null) {
-            JSONArray synchronizedTilesArray = cloudTiles.optJSONArray("synchronizedTiles");
-            createTilesFromJsonArray(synchronizedTilesArray, synchronizedCloudTiles);
-            JSONArray unsynchronizedTilesArray = cloudTiles.optJSONArray("unsynchronizedTiles");
-            createTilesFromJsonArray(unsynchronizedTilesArray, unsynchronizedCloudTiles);
-            JSONArray deletedCloudTilesArray = cloudTiles.optJSONArray("deletedCloudTiles");
-            createTilesFromJsonArray(deletedCloudTilesArray, deletedCloudTiles);
-        }
-
-        JSONArray tileGeneratorsArray = tilesRoot.optJSONArray("tile-generators");
-        if (tileGeneratorsArray != null) {
-            for (int i = 0; i < tileGeneratorsArray.length(); i++) {
-                JSONObject tileGeneratorJson = tileGeneratorsArray.optJSONObject(i);
-                if (tileGeneratorJson == null) continue;
-                TileGenerator tileGenerator = new TileGenerator(tileGeneratorJson);
-                if (tileGenerator.isValid()) tileGenerators.add(tileGenerator);
-            }
-        }
+        tiles.addAll(content.getTiles());
+        synchronizedCloudTiles.addAll(content.getCloudTiles("synchronizedTiles"));
+        unsynchronizedCloudTiles.addAll(content.getCloudTiles("unsynchronizedTiles"));
+        deletedCloudTiles.addAll(content.getCloudTiles("deletedCloudTiles"));
+        tileGenerators.addAll(content.getTileGenerators());
+        categories.addAll(content.getCategories());
 
-        JSONArray categoriesArray = tilesRoot.optJSONArray("categories");
-        if (categoriesArray != null) {
-            for (int i = 0; i < categoriesArray.length(); i++) {
-                JSONObject categoryJson = categoriesArray.optJSONObject(i);
-                if (categoryJson == null) continue;
-                TileCategory category = new TileCategory(categoryJson);
-                if (category.isValid()) {
-                    categories.add(category);
-                }
-            }
-        }
+        frecencyStore.loadFromJson(tilesRoot.optJSONObject("activation-history"));
+        querySelectionCache.loadFromJson(tilesRoot.optJSONArray("query-selections"));
 
         JSONArray disabledRuntimeTilesArray = tilesRoot.optJSONArray("disabled-runtime-tiles");
         if (disabledRuntimeTilesArray != null) {
@@ -232,30 +381,105 @@ public class TileManager {
             }
         }
 
+        rebuildIndexes();
+        // the tile generators have been replaced, e.g. by undo or redo, so their sets are replaced as well
+        updateGeneratedTileSets(Collections.emptyList());
+
         LOG.info("Loaded [{}] tile(s), [{}] tile generator(s) and [{}] category/ies.", tiles.size(), tileGenerators.size(), categories.size());
     }
 
-    private void createTilesFromJsonArray(JSONArray tilesArray, List<Tile> tiles) {
-        if (tilesArray != null) {
-            for (int i = 0; i < tilesArray.length(); i++) {
-                JSONObject tileJson = tilesArray.optJSONObject(i);
-                if (tileJson == null) continue;
-                Tile tile = new Tile(tileJson);
-                if (tile.isValid()) tiles.add(tile);
-            }
-        }
+    private void rebuildIndexes() {
+        tileIndex.rebuild(tiles);
+        rebuildCloudIndexes();
+    }
+
+    private void rebuildCloudIndexes() {
+        synchronizedCloudTileIndex.rebuild(synchronizedCloudTiles);
+        unsynchronizedCloudTileIndex.rebuild(unsynchronizedCloudTiles);
     }
 
+    /**
+     * Scans the directories of all tile generators again. The previous tiles stay searchable until the new ones are
+     * complete.
+     */
     public void regenerateGeneratedTiles() {
+        final List<GeneratedTileSet> sets = updateGeneratedTileSets(tileGenerators);
+        new Thread(() -> {
+            // the directories of all generators are walked at the same time
+            sets.parallelStream().forEach(generatedTileWatcher::scan);
+            LOG.info("Done generating [{}] tile(s).", sets.stream().mapToInt(GeneratedTileSet::size).sum());
+        }).start();
+    }
+
+    /**
+     * Scans the directories of a single tile generator again, e.g. after one of its generators has been modified.
+     */
+    public void regenerateGeneratedTiles(TileGenerator tileGenerator) {
+        updateGeneratedTileSets(Collections.singletonList(tileGenerator)).stream()
+                .filter(set -> set.getGenerator() == tileGenerator)
+                .findFirst()
+                .ifPresent(set -> new Thread(() -> {
+                    generatedTileWatcher.scan(set);
+                    LOG.info("Done generating [{}] tile(s).", set.size());
+                }).start());
+    }
+
+    /**
+     * Restores the generated tiles from their caches, so that they can be searched without waiting for the directories
+     * to be walked, and scans the directories in the background to pick up the changes since the last scan.
+     */
+    private void loadGeneratedTiles(List<GeneratedTileSet> sets) {
+        if (sets.isEmpty()) return;
         new Thread(() -> {
-            generatedTiles.clear();
-            for (TileGenerator tileGenerator : tileGenerators) {
-                generatedTiles.addAll(tileGenerator.generateTiles());
+            final List<GeneratedTileSet> outdatedSets = new ArrayList<>();
+            for (GeneratedTileSet set : sets) {
+                if (set.loadFromCache()) {
+                    // likely up to date, so the scan can wait for the low priority thread
+                    generatedTileWatcher.scheduleScan(set);
+                } else {
+                    outdatedSets.add(set);
+                }
             }
-            LOG.info("Done generating [{}] tile(s).", generatedTiles.size());
+            LOG.info("Restored [{}] generated tile(s) from the cache.", sets.stream().mapToInt(GeneratedTileSet::size).sum());
+            outdatedSets.parallelStream().forEach(generatedTileWatcher::scan);
+            LOG.info("Done generating [{}] tile(s).", sets.stream().mapToInt(GeneratedTileSet::size).sum());
         }).start();
     }
 
+    private File getGeneratedTileCacheFile(TileGenerator tileGenerator) {
+        return new File(new File(tileFile.getAbsoluteFile().getParentFile(), "generated"), tileGenerator.getId() + ".bin");
+    }
+
+    /**
+     * Creates the sets of new tile generators and drops the sets of removed ones. The sets are matched to the tile
+     * generators by identity, so replaced tile generators get new sets as well.<br>
+     * The tiles of the created sets are restored from their caches or scanned in the background, except for the sets
+     * of the tile generators that are about to be scanned by the caller.
+     *
+     * @param scannedGenerators The tile generators whose sets are scanned by the caller.
+     * @return The sets of all tile generators.
+     */
+    private synchronized List<GeneratedTileSet> updateGeneratedTileSets(Collection<TileGenerator> scannedGenerators) {
+        for (GeneratedTileSet set : generatedTileSets) {
+            if (!tileGenerators.contains(set.getGenerator())) {
+                removedGeneratedTileSetsVersion.addAndGet(set.getVersion() + 1);
+                generatedTileSets.remove(set);
+                generatedTileWatcher.unwatch(set);
+            }
+        }
+        final List<GeneratedTileSet> createdSets = new ArrayList<>();
+        for (TileGenerator tileGenerator : tileGenerators) {
+            if (generatedTileSets.stream().noneMatch(set -> set.getGenerator() == tileGenerator)) {
+                final GeneratedTileSet set = new GeneratedTileSet(tileGenerator, new GeneratedTileCache(getGeneratedTileCacheFile(tileGenerator)));
+                generatedTileWatcher.watch(set);
+                generatedTileSets.add(set);
+                if (scannedGenerators.stream().noneMatch(scanned -> scanned == tileGenerator)) createdSets.add(set);
+            }
+        }
+        loadGeneratedTiles(createdSets);
+        return new ArrayList<>(generatedTileSets);
+    }
+
     public void addCategory(TileCategory category) {
         categories.add(category);
     }
@@ -264,6 +488,7 @@ public class TileManager {
         for (Tile tile : tiles) {
             if (tile.getCategory() != null && tile.getCategory().equals(category.getLabel())) {
                 tile.setCategory(null);
+                tileIndex.update(tile);
             }
         }
         categories.remove(category);
@@ -289,16 +514,20 @@ public class TileManager {
 
     public void addTileGenerator(TileGenerator tileGenerator) {
         tileGenerators.add(tileGenerator);
-        regenerateGeneratedTiles();
+        regenerateGeneratedTiles(tileGenerator);
     }
 
     public void removeTileGenerator(TileGenerator tileGenerator) {
         tileGenerators.remove(tileGenerator);
-        regenerateGeneratedTiles();
+        generatedTileSets.stream()
+                .filter(set -> set.getGenerator() == tileGenerator)
+                .forEach(GeneratedTileSet::deleteCache);
+        updateGeneratedTileSets(Collections.emptyList());
     }
 
     public void addTile(Tile tile) {
         tiles.add(tile);
+        tileIndex.add(tile);
     }
 
     public Tile findTile(String tileId) {
@@ -324,21 +553,169 @@ public class TileManager {
             synchronizedCloudTiles.remove(tile);
             unsynchronizedCloudTiles.remove(tile);
             deletedCloudTiles.add(tile);
+            synchronizedCloudTileIndex.remove(tile);
+            unsynchronizedCloudTileIndex.remove(tile);
         }
         tiles.remove(tile);
+        tileIndex.remove(tile);
+        querySelectionCache.removeTile(tile.getId());
+    }
+
+    /**
+     * Has to be called after a tile has been executed, so that it is ranked higher in later searches.
+     *
+     * @param tile  The executed tile.
+     * @param input The input the tile has been selected from.
+     */
+    public void tileHasBeenExecuted(Tile tile, String input) {
+        // runtime tiles are created anew for every input, their history would never be used again
+        if (tileIndex.contains(tile) || generatedTileSets.stream().anyMatch(set -> set.contains(tile))
+            || synchronizedCloudTileIndex.contains(tile) || unsynchronizedCloudTileIndex.contains(tile)) {
+            frecencyStore.recordActivation(tile, tile.getLastActivated());
+            if (input != null) querySelectionCache.recordSelection(input, tile);
+        }
+    }
+
+    /**
+     * Has to be called after the label, category or keywords of a tile have been modified, so that the tile can be
+     * found using the new values.
+     */
+    public void tileHasBeenEdited(Tile tile) {
+        tileIndex.update(tile);
+        synchronizedCloudTileIndex.update(tile);
+        unsynchronizedCloudTileIndex.update(tile);
     }
 
+    /**
+     * Marks the tiles as modified, they are written to the tile file on a background thread after {@link #SAVE_DELAY}
+     * milliseconds, so e.g. executing a tile never waits for the file to be written. The content of the file is created
+     * right away on the calling thread, the thread that has modified the tiles, only the bytes are handed to the
+     * background thread. The latest content until then is written at once and also when the application exits.
+     */
     public void save() {
-        try {
-            tileFile.getParentFile().mkdirs();
-            FileWriter myWriter = new FileWriter(tileFile);
+        synchronized (saveStateLock) {
+            try {
+                unsavedTiles.set(createSavedTiles());
+            } catch (IOException e) {
+                LOG.error("error ", e);
+                return;
+            }
+        }
+        UNSAVED_TILE_MANAGERS.add(this);
+        if (saveScheduled.compareAndSet(false, true)) {
+            saver.schedule(this::flush, SAVE_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
 
-            myWriter.write(toJSON().toString());
-            myWriter.close();
-            LOG.info("Saved tiles");
-        } catch (IOException e) {
-            TrayUtil.showError("Unable to save tiles: " + e.getMessage());
-            LOG.error("error ", e);
+    /**
+     * Writes the tiles to the tile file right away, if they have been modified since they have last been written.
+     */
+    public void flush() {
+        synchronized (saveLock) {
+            saveScheduled.set(false);
+            final SavedTiles saved = unsavedTiles.getAndSet(null);
+            if (saved != null) {
+                try {
+                    writeTileFile(saved);
+                } catch (IOException e) {
+                    // written with the next save or on exit, unless the tiles have been saved again in the meantime
+                    unsavedTiles.compareAndSet(null, saved);
+                    TrayUtil.showError("Unable to save tiles: " + e.getMessage());
+                    LOG.error("error ", e);
+                }
+            }
+            UNSAVED_TILE_MANAGERS.remove(this);
+            if (unsavedTiles.get() != null) UNSAVED_TILE_MANAGERS.add(this);
+        }
+    }
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> UNSAVED_TILE_MANAGERS.forEach(TileManager::flush), "tile-saver-shutdown"));
+    }
+
+    /**
+     * Creates the tile file with the same content as {@link #toJSON()} and its snapshot. The file is created section by
+     * section, the JSON of the tiles is created one tile at a time while it is written into the bytes.
+     */
+    private SavedTiles createSavedTiles() throws IOException {
+        final List<Tile> exportedTiles = tiles.stream().filter(Tile::isExportable).collect(Collectors.toList());
+        final List<Tile> exportedSynchronizedCloudTiles = new ArrayList<>(synchronizedCloudTiles);
+        final List<Tile> exportedUnsynchronizedCloudTiles = new ArrayList<>(unsynchronizedCloudTiles);
+        final List<Tile> exportedDeletedCloudTiles = new ArrayList<>(deletedCloudTiles);
+        final List<TileGenerator> exportedTileGenerators = new ArrayList<>(tileGenerators);
+        final List<TileCategory> exportedCategories = new ArrayList<>(categories);
+        final JSONArray disabledRuntimeTilesArray = new JSONArray(disabledRuntimeTiles.stream().distinct().collect(Collectors.toList()));
+        final JSONObject activationHistory = frecencyStore.toJSON(System.currentTimeMillis());
+        final JSONArray querySelections = querySelectionCache.toJSON();
+        final String username = cloudAccess != null ? cloudAccess.getUsername() : null;
+
+        // the fields are put in the same order as in toJSON(), which determines the order they are written in
+        final JsonObjectWriter cloudTilesWriter = new JsonObjectWriter()
+                .putArray("synchronizedCloudTiles", exportedSynchronizedCloudTiles, Tile::toJSON)
+                .putArray("unsynchronizedCloudTiles", exportedUnsynchronizedCloudTiles, Tile::toJSON)
+                .putArray("deletedCloudTiles", exportedDeletedCloudTiles, Tile::toJSON)
+                .put("username", username);
+        final JsonObjectWriter tilesRootWriter = new JsonObjectWriter()
+                .putArray("tiles", exportedTiles, Tile::toJSON)
+                .putArray("tile-generators", exportedTileGenerators, TileGenerator::toJSON)
+                .putArray("categories", exportedCategories, TileCategory::toJSON)
+                .put("disabled-runtime-tiles", disabledRuntimeTilesArray)
+                .put("cloudTiles", cloudTilesWriter)
+                .put("activation-history", activationHistory)
+                .put("query-selections", querySelections)
+                .put("version", TILE_FORMAT_VERSION);
+        final ByteArrayOutputStream tileFileBytes = new ByteArrayOutputStream(Math.max(1024, exportedTiles.size() * 256));
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(tileFileBytes, StandardCharsets.UTF_8))) {
+            tilesRootWriter.write(writer);
+        }
+        final byte[] tileFileContent = tileFileBytes.toByteArray();
+
+        // the same state is written to the snapshot
+        final JSONObject cloudTilesJson = new JSONObject();
+        cloudTilesJson.put("username", username);
+        final JSONObject otherSections = new JSONObject();
+        otherSections.put("disabled-runtime-tiles", disabledRuntimeTilesArray);
+        otherSections.put("cloudTiles", cloudTilesJson);
+        otherSections.put("activation-history", activationHistory);
+        otherSections.put("query-selections", querySelections);
+        otherSections.put("version", TILE_FORMAT_VERSION);
+        final TileFileContent content = new TileFileContent(otherSections);
+        content.setTiles(exportedTiles);
+        content.setCloudTiles("synchronizedCloudTiles", exportedSynchronizedCloudTiles);
+        content.setCloudTiles("unsynchronizedCloudTiles", exportedUnsynchronizedCloudTiles);
+        content.setCloudTiles("deletedCloudTiles", exportedDeletedCloudTiles);
+        content.setTileGenerators(exportedTileGenerators);
+        content.setCategories(exportedCategories);
+        return new SavedTiles(tileFileContent, TileSnapshot.create(content, tileFileContent));
+    }
+
+    /**
+     * Writes the tiles to a temporary file first, which then replaces the tile file, so that the tile file is never
+     * left incomplete.
+     */
+    private void writeTileFile(SavedTiles saved) throws IOException {
+        tileFile.getParentFile().mkdirs();
+        final File temporaryFile = new File(tileFile.getParentFile(), tileFile.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporaryFile)) {
+            out.write(saved.tileFile);
+            // the content has to be on the disk before the move, otherwise a crash may leave an empty tile file
+            out.getFD().sync();
+        }
+        Files.move(temporaryFile.toPath(), tileFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        tileSnapshot.write(saved.snapshot);
+        LOG.info("Saved tiles");
+    }
+
+    /**
+     * The bytes of the tile file and its snapshot, created when the tiles are saved.
+     */
+    private static class SavedTiles {
+        private final byte[] tileFile;
+        private final byte[] snapshot;
+
+        private SavedTiles(byte[] tileFile, byte[] snapshot) {
+            this.tileFile = tileFile;
+            this.snapshot = snapshot;
         }
     }
 
@@ -372,6 +749,8 @@ public class TileManager {
         tilesRoot.put("categories", categoriesArray);
         tilesRoot.put("disabled-runtime-tiles", disabledRuntimeTiles.stream().distinct().collect(Collectors.toList()));
         tilesRoot.put("cloudTiles", cloudTiles);
+        tilesRoot.put("activation-history", frecencyStore.toJSON(System.currentTimeMillis()));
+        tilesRoot.put("query-selections", querySelectionCache.toJSON());
         tilesRoot.put("version", TILE_FORMAT_VERSION);
 
         return tilesRoot;
@@ -389,18 +768,24 @@ public class TileManager {
 
     private void setSettingsCloudTilesActive(boolean active) {
         if (active) {
-            tiles.add(SETTINGS_TILE_CLOUD_SYNC);
-            tiles.add(SETTINGS_TILE_CLOUD_CREATE_TILE);
+            addTile(SETTINGS_TILE_CLOUD_SYNC);
+            addTile(SETTINGS_TILE_CLOUD_CREATE_TILE);
         } else {
             tiles.remove(SETTINGS_TILE_CLOUD_SYNC);
             tiles.remove(SETTINGS_TILE_CLOUD_CREATE_TILE);
+            tileIndex.remove(SETTINGS_TILE_CLOUD_SYNC);
+            tileIndex.remove(SETTINGS_TILE_CLOUD_CREATE_TILE);
         }
     }
 
     public void setSettingsTileCheckForUpdateActive(boolean active) {
         // if the application is not launched from a jar file, then the update cannot take place anyway
-        if (active && Util.isApplicationStartedFromJar()) tiles.add(SETTINGS_TILE_CHECK_FOR_UPDATE);
-        else tiles.remove(SETTINGS_TILE_CHECK_FOR_UPDATE);
+        if (active && Util.isApplicationStartedFromJar()) {
+            addTile(SETTINGS_TILE_CHECK_FOR_UPDATE);
+        } else {
+            tiles.remove(SETTINGS_TILE_CHECK_FOR_UPDATE);
+            tileIndex.remove(SETTINGS_TILE_CHECK_FOR_UPDATE);
+        }
     }
 
     private void createSettingsTiles() {
@@ -626,17 +1011,19 @@ public class TileManager {
             JSONObject tilesForUser = cloudAccess.getTilesForUser();
             if (CloudAccess.isSuccess(tilesForUser)) {
                 JSONArray tiles = new JSONArray(tilesForUser.optString("message", ""));
-                unsynchronizedCloudTiles.clear();
-                synchronizedCloudTiles.clear();
+                List<Tile> receivedTiles = new ArrayList<>(tiles.length());
                 for (int i = 0; i < tiles.length(); i++) {
                     JSONObject tileJson = tiles.getJSONObject(i);
                     if (tileJson != null) {
                         Tile tile = new Tile(tileJson);
                         if (tile.getId() != null) {
-                            synchronizedCloudTiles.add(tile);
+                            receivedTiles.add(tile);
                         }
                     }
                 }
+                unsynchronizedCloudTiles.clear();
+                synchronizedCloudTiles.clear();
+                synchronizedCloudTiles.addAll(receivedTiles);
                 LOG.info("Received [{}] tiles from cloud", tiles.length());
             } else {
                 unsynchronizedCloudTiles.clear();
@@ -649,6 +1036,7 @@ public class TileManager {
         } catch (JSONException e) {
             TrayUtil.showError("Unable to parse the response from the cloud server");
         }
+        rebuildCloudIndexes();
         save();
     }
 
@@ -674,6 +1062,7 @@ public class TileManager {
         unsynchronizedCloudTiles.clear();
         synchronizedCloudTiles.clear();
         deletedCloudTiles.clear();
+        rebuildCloudIndexes();
         save();
     }
 
@@ -687,11 +1076,13 @@ public class TileManager {
         unsynchronizedCloudTiles.removeIf(t -> t.getId().equals(tile.getId()));
         synchronizedCloudTiles.removeIf(t -> t.getId().equals(tile.getId()));
         unsynchronizedCloudTiles.add(tile);
+        rebuildCloudIndexes();
         LOG.info("Tile [{}] has been edited locally, but not yet synchronized to the cloud", tile.getId());
     }
 
     public void addCloudTile(Tile tile) {
         unsynchronizedCloudTiles.add(tile);
+        unsynchronizedCloudTileIndex.add(tile);
     }
 
     public CloudAccess getCloudAccess() {
@@ -711,6 +1102,22 @@ public class TileManager {
     }
 
     public interface InputEvaluatedListener {
+        /**
+         * Called once per input with the matching local tiles, as soon as they have been found.
+         *
+         * @param tiles The matching tiles, best match first.
+         */
         void onInputEvaluated(List<Tile> tiles);
+
+        /**
+         * Called every time a runtime tile has generated tiles for the same input that has last been passed to
+         * {@link #onInputEvaluated(List)}. The tiles from the previous call are still in the same positions, the new
+         * tiles are appended to them.
+         *
+         * @param tiles All tiles that have been found for the input so far.
+         */
+        default void onInputEvaluationUpdated(List<Tile> tiles) {
+            onInputEvaluated(tiles);
+        }
     }
 }
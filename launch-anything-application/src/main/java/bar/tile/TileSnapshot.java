@@ -0,0 +1,286 @@
+package bar.tile;
+
+import bar.tile.action.TileAction;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Binary copy of the tile file that is read on startup instead of parsing the JSON, which is slow for many tiles.<br>
+ * The tiles and cloud tiles are stored field by field. Their actions are stored as the key-value pairs of their JSON
+ * objects, since plugins may provide additional action types, but without having to parse JSON. All other sections of
+ * the tile file are stored as a JSON string, they are small compared to the tiles.
+ * <p>
+ * The tile file stays the source of truth: the snapshot records the checksum of the tile file it has been created from
+ * and is only used as long as the tile file still has the same checksum, so that edits of the JSON are never ignored,
+ * even if they keep the length and modification time of the file. Computing the checksum is much faster than parsing.
+ * It is written next to the tile file every time the tiles are saved.
+ */
+public class TileSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TileSnapshot.class);
+
+    private final static int MAGIC = 0x4C415453;
+    private final static int FORMAT_VERSION = 3;
+
+    // the types of the values of the actions
+    private final static byte VALUE_STRING = 0;
+    private final static byte VALUE_LONG = 1;
+    private final static byte VALUE_BOOLEAN = 2;
+    private final static byte VALUE_JSON = 3;
+
+    private final File file;
+    private final File tileFile;
+
+    public TileSnapshot(File tileFile) {
+        this.tileFile = tileFile;
+        this.file = new File(tileFile.getAbsoluteFile().getParentFile(), tileFile.getName().replaceAll("\\.json$", "") + ".bin");
+    }
+
+    /**
+     * Writes the snapshot for the current state of the tile file. Has to be called after the tile file has been written.
+     *
+     * @param content The content of the tile file.
+     */
+    public void write(TileFileContent content) {
+        try {
+            write(create(content, checksumOf(tileFile)));
+        } catch (IOException e) {
+            LOG.warn("Unable to write tile snapshot [{}]: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a snapshot that has been created using {@link #create(TileFileContent, byte[])}. Has to be called after
+     * the tile file has been written.
+     */
+    public void write(byte[] snapshot) {
+        try {
+            final File temporaryFile = new File(file.getParentFile(), file.getName() + ".tmp");
+            Files.write(temporaryFile.toPath(), snapshot);
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to write tile snapshot [{}]: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the snapshot without writing it, e.g. on the thread that has modified the tiles.
+     *
+     * @param content  The content of the tile file.
+     * @param tileFile The bytes the tile file is written with.
+     */
+    public static byte[] create(TileFileContent content, byte[] tileFile) throws IOException {
+        final CRC32 checksum = new CRC32();
+        checksum.update(tileFile);
+        return create(content, checksum.getValue());
+    }
+
+    private static byte[] create(TileFileContent content, long tileFileChecksum) throws IOException {
+        final List<Tile> tiles = content.getTiles();
+        final ByteArrayOutputStream data = new ByteArrayOutputStream(Math.max(64, tiles.size() * 128));
+        try (DataOutputStream out = new DataOutputStream(data)) {
+            writeTiles(out, tiles);
+            out.writeInt(content.getCloudTileSections().size());
+            for (Map.Entry<String, List<Tile>> cloudTiles : content.getCloudTileSections().entrySet()) {
+                writeString(out, cloudTiles.getKey());
+                writeTiles(out, cloudTiles.getValue());
+            }
+            writeString(out, content.getOtherSections().toString());
+        }
+        final CRC32 checksum = new CRC32();
+        checksum.update(data.toByteArray());
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream(data.size() + 28);
+        try (DataOutputStream out = new DataOutputStream(snapshot)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(tileFileChecksum);
+            out.writeLong(checksum.getValue());
+            out.writeInt(data.size());
+            data.writeTo(out);
+        }
+        return snapshot.toByteArray();
+    }
+
+    /**
+     * @return The content of the tile file or <code>null</code> if there is no snapshot or the tile file has been
+     * modified since it has been written.
+     */
+    public TileFileContent read() {
+        if (!file.isFile() || !tileFile.isFile()) return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) throw new EOFException();
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) return null;
+            if (buffer.getLong() != checksumOf(tileFile)) return null;
+
+            final long expectedChecksum = buffer.getLong();
+            final int length = buffer.getInt();
+            final ByteBuffer data = buffer.slice();
+            data.limit(length);
+            final CRC32 checksum = new CRC32();
+            checksum.update(data.duplicate());
+            if (checksum.getValue() != expectedChecksum) {
+                LOG.warn("Tile snapshot [{}] is corrupted", file);
+                return null;
+            }
+
+            final List<Tile> tiles = readTiles(data);
+            final Map<String, List<Tile>> cloudTiles = new LinkedHashMap<>();
+            final int cloudTileSectionCount = data.getInt();
+            for (int i = 0; i < cloudTileSectionCount; i++) {
+                cloudTiles.put(readString(data), readTiles(data));
+            }
+            final TileFileContent content = new TileFileContent(new JSONObject(readString(data)));
+            content.setTiles(tiles);
+            cloudTiles.forEach(content::setCloudTiles);
+            return content;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to read tile snapshot [{}]: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long checksumOf(File file) throws IOException {
+        final CRC32 checksum = new CRC32();
+        try (InputStream in = new FileInputStream(file)) {
+            final byte[] buffer = new byte[64 * 1024];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                checksum.update(buffer, 0, read);
+            }
+        }
+        return checksum.getValue();
+    }
+
+    private static void writeTiles(DataOutputStream out, List<Tile> tiles) throws IOException {
+        out.writeInt(tiles.size());
+        for (Tile tile : tiles) {
+            writeTile(out, tile);
+        }
+    }
+
+    private static List<Tile> readTiles(ByteBuffer data) {
+        final int tileCount = data.getInt();
+        final List<Tile> tiles = new ArrayList<>(tileCount);
+        for (int i = 0; i < tileCount; i++) {
+            tiles.add(readTile(data));
+        }
+        return tiles;
+    }
+
+    private static void writeTile(DataOutputStream out, Tile tile) throws IOException {
+        writeString(out, tile.getId());
+        writeString(out, tile.getLabel());
+        writeString(out, tile.getCategory());
+        writeString(out, tile.getKeywords());
+        out.writeBoolean(tile.isActive());
+        out.writeLong(tile.getLastActivated());
+        final List<TileAction> actions = new ArrayList<>(tile.getTileActions());
+        actions.removeIf(action -> action == null);
+        out.writeInt(actions.size());
+        for (TileAction action : actions) {
+            writeAction(out, action.toJSON());
+        }
+    }
+
+    /**
+     * Creates the tile with the same defaults as {@link Tile#Tile(JSONObject)} for the fields that are not set.
+     */
+    private static Tile readTile(ByteBuffer data) {
+        final String id = readString(data);
+        final String label = readString(data);
+        final String category = readString(data);
+        final String keywords = readString(data);
+        final Tile tile = new Tile(label != null ? label : "Unlabeled tile", category != null ? category : "unassigned", keywords != null ? keywords : "", true);
+        tile.setId(id != null ? id : UUID.randomUUID().toString());
+        tile.setActive(data.get() != 0);
+        tile.setLastActivated(data.getLong());
+        final int actionCount = data.getInt();
+        for (int i = 0; i < actionCount; i++) {
+            tile.addAction(TileAction.getInstance(readAction(data)));
+        }
+        return tile;
+    }
+
+    private static void writeAction(DataOutputStream out, JSONObject action) throws IOException {
+        out.writeInt(action.length());
+        for (String key : action.keySet()) {
+            writeString(out, key);
+            final Object value = action.get(key);
+            if (value instanceof String) {
+                out.writeByte(VALUE_STRING);
+                writeString(out, (String) value);
+            } else if (value instanceof Integer || value instanceof Long) {
+                out.writeByte(VALUE_LONG);
+                out.writeLong(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                out.writeByte(VALUE_BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else {
+                out.writeByte(VALUE_JSON);
+                writeString(out, new JSONArray().put(value).toString());
+            }
+        }
+    }
+
+    private static JSONObject readAction(ByteBuffer data) {
+        final JSONObject action = new JSONObject();
+        final int length = data.getInt();
+        for (int i = 0; i < length; i++) {
+            final String key = readString(data);
+            final byte type = data.get();
+            switch (type) {
+                case VALUE_STRING:
+                    action.put(key, readString(data));
+                    break;
+                case VALUE_LONG:
+                    final long value = data.getLong();
+                    if (value == (int) value) action.put(key, (int) value);
+                    else action.put(key, value);
+                    break;
+                case VALUE_BOOLEAN:
+                    action.put(key, data.get() != 0);
+                    break;
+                case VALUE_JSON:
+                    action.put(key, new JSONArray(readString(data)).get(0));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown value type " + type);
+            }
+        }
+        return action;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer data) {
+        final int length = data.getInt();
+        if (length == -1) return null;
+        final byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -63,6 +63,11 @@ public class AspectRationTile implements RuntimeTile {
         return Collections.emptyList();
     }
 
+    @Override
+    public boolean mayMatch(String search) {
+        return search.length() >= 6 && search.contains(":") && search.contains(" ");
+    }
+
     @Override
     public String getName() {
         return "Aspect Ratio";
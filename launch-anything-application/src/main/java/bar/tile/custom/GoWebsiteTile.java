@@ -23,6 +23,11 @@ public class GoWebsiteTile implements RuntimeTile {
         return Collections.emptyList();
     }
 
+    @Override
+    public String[] getTriggerPrefixes() {
+        return new String[]{"go"};
+    }
+
     @Override
     public String getName() {
         return "Go Website";
@@ -121,6 +121,21 @@ public class NumberBaseConverterTile implements RuntimeTile {
         return convertNumber;
     }
 
+    @Override
+    public boolean mayMatch(String search) {
+        search = search.replace(" ", "");
+        if (search.length() <= 2) return false;
+        if (search.contains("dec") || search.contains("bin") || search.contains("oct") || search.contains("hex")) {
+            return true;
+        }
+        // binary numbers are detected without a system name
+        for (int i = 0; i < search.length(); i++) {
+            final char c = search.charAt(i);
+            if (c != '0' && c != '1') return false;
+        }
+        return true;
+    }
+
     @Override
     public String getName() {
         return "Number Base Converter";
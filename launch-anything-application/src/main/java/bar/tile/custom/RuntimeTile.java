@@ -40,6 +40,39 @@ public interface RuntimeTile {
      */
     String getVersion();
 
+    /**
+     * If this runtime tile only generates tiles for inputs that start with a certain keyword, it can return these
+     * keywords here. It will then only be evaluated if the input starts with one of them, which saves evaluating it on
+     * every other input.
+     *
+     * @return The prefixes that trigger this runtime tile or <code>null</code> if it should receive every input.
+     */
+    default String[] getTriggerPrefixes() {
+        return null;
+    }
+
+    /**
+     * A quick check that is performed before {@link #generateTiles(String, AtomicReference)} is called. If it returns
+     * <code>false</code>, the runtime tile is skipped for this input. This method is called on every input, so it
+     * should only perform cheap checks on the input itself and must not access the network or the file system.
+     *
+     * @param search The search string the user entered.
+     * @return <code>false</code> if the runtime tile would certainly not generate any tiles for the input.
+     */
+    default boolean mayMatch(String search) {
+        return true;
+    }
+
+    /**
+     * All runtime tiles are evaluated in parallel. If the tiles of this runtime tile have not been generated after this
+     * amount of time, the evaluation is interrupted and its tiles are discarded for the current search.
+     *
+     * @return The time in milliseconds this runtime tile may take to generate its tiles.
+     */
+    default long getEvaluationTimeout() {
+        return 3000;
+    }
+
     /**
      * Allows you to log info messages to the console.
      *
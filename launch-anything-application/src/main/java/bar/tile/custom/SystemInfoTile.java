@@ -78,6 +78,11 @@ public class SystemInfoTile implements RuntimeTile {
         return tile;
     }
 
+    @Override
+    public String[] getTriggerPrefixes() {
+        return new String[]{"sys"};
+    }
+
     @Override
     public String getName() {
         return "System Info";
@@ -82,6 +82,14 @@ public class TimeZoneConversionTile implements RuntimeTile {
         return tiles;
     }
 
+    @Override
+    public boolean mayMatch(String search) {
+        if (search.startsWith("timer")) return true;
+        // the input has to be split into at least two arguments by one of the conversion keywords
+        final String lowercase = search.toLowerCase();
+        return lowercase.contains("into") || lowercase.contains(" in") || lowercase.contains(" to") || lowercase.contains(" from");
+    }
+
     public static Tile createTileForConversion(Calendar convertCalendar, TimeZone fromTimeZone, TimeZone toTimeZone) {
         Calendar convertedTimeCalendar = new GregorianCalendar(toTimeZone);
         convertedTimeCalendar.setTimeInMillis(convertCalendar.getTimeInMillis());
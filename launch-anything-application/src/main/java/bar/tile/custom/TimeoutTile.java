@@ -22,6 +22,11 @@ public class TimeoutTile implements RuntimeTile {
         return Collections.emptyList();
     }
 
+    @Override
+    public String[] getTriggerPrefixes() {
+        return new String[]{"timeout", "to"};
+    }
+
     @Override
     public String getName() {
         return "Timeout";
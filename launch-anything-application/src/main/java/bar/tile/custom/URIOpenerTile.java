@@ -12,12 +12,18 @@ import java.util.concurrent.atomic.AtomicReference;
 
 public class URIOpenerTile implements RuntimeTile {
 
+    @Override
+    public boolean mayMatch(String search) {
+        return search.contains("/") || search.contains("\\") || search.contains(".");
+    }
+
     @Override
     public List<Tile> generateTiles(String search, AtomicReference<Long> lastInputEvaluated) {
-        if (search.contains("/") || search.contains("\\") || search.contains(".")) {
+        if (mayMatch(search)) {
             if (search.startsWith("file://")) search = search.substring(7);
             File file = new File(search);
-            if (file.exists()) {
+            // only access the file system for inputs that look like a path, not for every input containing a dot
+            if ((file.isAbsolute() || isRelativePath(search)) && file.exists()) {
                 if (file.isDirectory()) {
                     Tile tile = new Tile("Open directory " + file.getName());
                     tile.setCategory("file");
@@ -44,6 +50,10 @@ public class URIOpenerTile implements RuntimeTile {
         return Collections.emptyList();
     }
 
+    private static boolean isRelativePath(String search) {
+        return search.startsWith("./") || search.startsWith("../") || search.startsWith(".\\") || search.startsWith("..\\");
+    }
+
     @Override
     public String getName() {
         return "URI opener";
@@ -55,6 +55,13 @@ public class UnitConverterTile implements RuntimeTile {
         return Collections.emptyList();
     }
 
+    @Override
+    public boolean mayMatch(String search) {
+        // both conversion formats start with the value to convert
+        final String trimmed = search.trim();
+        return search.length() >= 2 && !trimmed.isEmpty() && (Character.isDigit(trimmed.charAt(0)) || trimmed.charAt(0) == '.');
+    }
+
     private Tile createTile(Converter input, Converter output, double inputValue) {
         if (input != null && output != null) {
             String outputValue = formatOutputNumber(input.convert(output, inputValue));
@@ -39,6 +39,17 @@ public class WikiSearchTile implements RuntimeTile {
         return Collections.emptyList();
     }
 
+    @Override
+    public String[] getTriggerPrefixes() {
+        return new String[]{"wiki"};
+    }
+
+    @Override
+    public long getEvaluationTimeout() {
+        // the input delay plus the request to wikipedia
+        return 6000;
+    }
+
     @Override
     public String getName() {
         return "Wiki Search";
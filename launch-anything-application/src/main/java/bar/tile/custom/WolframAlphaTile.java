@@ -84,6 +84,17 @@ public class WolframAlphaTile implements RuntimeTile {
         return tile;
     }
 
+    @Override
+    public String[] getTriggerPrefixes() {
+        return new String[]{"wolfram"};
+    }
+
+    @Override
+    public long getEvaluationTimeout() {
+        // the input delay plus the timeout of the api request, with some slack for the connection
+        return 800 + (Main.getSettingInt(WOLFRAM_TIMEOUT_SETTINGS_KEY) + 2) * 1000L;
+    }
+
     @Override
     public String getName() {
         return "Wolfram Alpha";
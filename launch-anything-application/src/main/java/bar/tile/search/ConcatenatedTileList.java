@@ -0,0 +1,41 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view of several lists of tiles after each other, without copying them into a single list.<br>
+ * Used to combine the results of the different tile sources without forcing a {@link TopKTileList} to sort all of its
+ * tiles.
+ */
+public class ConcatenatedTileList extends AbstractList<Tile> {
+
+    private final List<List<Tile>> segments = new ArrayList<>();
+    private int size = 0;
+
+    public void addSegment(List<Tile> segment) {
+        if (segment.isEmpty()) return;
+        segments.add(segment);
+        size += segment.size();
+    }
+
+    @Override
+    public Tile get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        for (List<Tile> segment : segments) {
+            if (index < segment.size()) return segment.get(index);
+            index -= segment.size();
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,201 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activation history of the tiles, used to rank tiles that match a search equally well by how often and how recently
+ * they have been used (frecency).<br>
+ * Every activation adds a score of <code>1</code> that halves every {@link #HALF_LIFE} milliseconds. Instead of the
+ * current score, the logarithm of the score relative to the time <code>0</code> is stored. All scores decay by the same
+ * factor over time, so this value can be compared between tiles without recomputing the decay, and an activation only
+ * has to update the value of a single tile.
+ * <p>
+ * The values are stored in primitive arrays, indexed by a slot that is assigned to a tile id on its first activation.
+ * Tiles that have no history yet are ranked as if they had been activated once at {@link Tile#getLastActivated()}.
+ */
+public class FrecencyStore {
+
+    public final static long HALF_LIFE = TimeUnit.DAYS.toMillis(7);
+    private final static double DECAY_RATE = Math.log(2) / HALF_LIFE;
+    // entries with a lower current score are not persisted, they are ranked using the last activation time instead
+    private final static double MIN_PERSISTED_SCORE = 0.001;
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private volatile Columns columns = new Columns(16);
+    private int size = 0;
+    private volatile long version = 0;
+
+    /**
+     * Adds an activation of the tile at the given time to the history.
+     */
+    public synchronized void recordActivation(Tile tile, long time) {
+        if (tile == null || tile.getId() == null) return;
+        final int slot = getOrCreateSlot(tile.getId());
+        final Columns columns = this.columns;
+        columns.counts[slot]++;
+        columns.logScores[slot] = logAddExp(columns.logScores[slot], DECAY_RATE * time);
+        version++;
+    }
+
+    /**
+     * @return A number that changes every time the history is modified.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return A value that orders the tiles by their current score, higher values rank first. It is only meaningful in
+     * comparison to the ranks of other tiles. Tiles that have never been activated have a rank of negative infinity.
+     */
+    public double getRank(Tile tile) {
+        return getRank(tile.getId(), tile.getLastActivated());
+    }
+
+    private double getRank(String id, long lastActivated) {
+        final Integer slot = id == null ? null : slots.get(id);
+        final Columns columns = this.columns;
+        // the slot may belong to a history that has been cleared in the meantime
+        if (slot != null && slot < columns.logScores.length) return columns.logScores[slot];
+        return lastActivated > 0 ? DECAY_RATE * lastActivated : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @return The decayed score of the tile at the given time, where every activation contributes up to <code>1</code>.
+     */
+    public double getScore(Tile tile, long time) {
+        return Math.exp(getRank(tile) - DECAY_RATE * time);
+    }
+
+    public int getActivationCount(Tile tile) {
+        final Integer slot = tile.getId() == null ? null : slots.get(tile.getId());
+        final Columns columns = this.columns;
+        if (slot != null && slot < columns.counts.length) return columns.counts[slot];
+        return tile.getLastActivated() > 0 ? 1 : 0;
+    }
+
+    /**
+     * @return The current rank and last activation of the tile, to sort tiles by even while the history is modified.
+     */
+    public Rank getCurrentRank(ScoredTile match) {
+        final long lastActivated = match.getLastActivated();
+        return new Rank(getRank(match.getId(), lastActivated), lastActivated);
+    }
+
+    public synchronized void clear() {
+        slots.clear();
+        columns = new Columns(16);
+        size = 0;
+        version++;
+    }
+
+    /**
+     * Replaces the history with the one stored in the JSON object created by {@link #toJSON(long)}.
+     */
+    public synchronized void loadFromJson(JSONObject json) {
+        clear();
+        if (json == null) return;
+        final long time = json.optLong("time", 0);
+        final JSONObject tiles = json.optJSONObject("tiles");
+        if (tiles == null) return;
+        for (String id : tiles.keySet()) {
+            final JSONObject entry = tiles.optJSONObject(id);
+            if (entry == null) continue;
+            final double score = entry.optDouble("score", 0);
+            if (!(score > 0)) continue;
+            final int slot = getOrCreateSlot(id);
+            columns.counts[slot] = entry.optInt("count", 1);
+            columns.logScores[slot] = Math.log(score) + DECAY_RATE * time;
+        }
+    }
+
+    /**
+     * @param time The time to compute the current scores at.
+     * @return The history with the scores decayed to the given time.
+     */
+    public synchronized JSONObject toJSON(long time) {
+        final JSONObject tiles = new JSONObject();
+        final Columns columns = this.columns;
+        for (int slot = 0; slot < size; slot++) {
+            final double score = Math.exp(columns.logScores[slot] - DECAY_RATE * time);
+            if (score < MIN_PERSISTED_SCORE) continue;
+            tiles.put(columns.ids[slot], new JSONObject()
+                    .put("count", columns.counts[slot])
+                    .put("score", score));
+        }
+        return new JSONObject()
+                .put("time", time)
+                .put("tiles", tiles);
+    }
+
+    private int getOrCreateSlot(String id) {
+        final Integer existing = slots.get(id);
+        if (existing != null) return existing;
+        if (size == columns.ids.length) {
+            // publish the larger arrays before the slot, so that readers never see a slot outside the arrays
+            columns = columns.grow(size * 2);
+        }
+        final int slot = size++;
+        columns.ids[slot] = id;
+        columns.counts[slot] = 0;
+        columns.logScores[slot] = Double.NEGATIVE_INFINITY;
+        slots.put(id, slot);
+        return slot;
+    }
+
+    /**
+     * @return <code>log(exp(a) + exp(b))</code> without leaving the logarithmic domain.
+     */
+    private static double logAddExp(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY) return b;
+        if (b == Double.NEGATIVE_INFINITY) return a;
+        final double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    /**
+     * The rank of a tile at one point in time. Ranks are sorted highest first, tiles with the same rank are sorted by
+     * their last activation, most recent first.
+     */
+    public static class Rank implements Comparable<Rank> {
+        private final double rank;
+        private final long lastActivated;
+
+        private Rank(double rank, long lastActivated) {
+            this.rank = rank;
+            this.lastActivated = lastActivated;
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            final int result = Double.compare(other.rank, rank);
+            return result != 0 ? result : Long.compare(other.lastActivated, lastActivated);
+        }
+    }
+
+    private static class Columns {
+        private final String[] ids;
+        private final int[] counts;
+        private final double[] logScores;
+
+        private Columns(int capacity) {
+            this(new String[capacity], new int[capacity], new double[capacity]);
+        }
+
+        private Columns(String[] ids, int[] counts, double[] logScores) {
+            this.ids = ids;
+            this.counts = counts;
+            this.logScores = logScores;
+        }
+
+        private Columns grow(int capacity) {
+            return new Columns(Arrays.copyOf(ids, capacity), Arrays.copyOf(counts, capacity), Arrays.copyOf(logScores, capacity));
+        }
+    }
+}
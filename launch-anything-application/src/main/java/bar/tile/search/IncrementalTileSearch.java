@@ -0,0 +1,103 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Searches a {@link TileIndex} while the user is typing.<br>
+ * Every tile that matches a search also matches all prefixes of that search, so when the input is extended by the user
+ * only the tiles that matched the previous input have to be checked again instead of querying the whole index. The
+ * previous result is only reused as long as it has been computed on the same snapshot of the index.<br>
+ * Matches with typos in them do not have this property, they are searched again on every input if there are only a few
+ * other matches.
+ */
+public class IncrementalTileSearch {
+
+    // typos are only considered if the search does not find enough tiles to fill the result bars
+    private final static int FUZZY_SEARCH_THRESHOLD = 8;
+
+    private final TileIndex index;
+
+    private final AtomicReference<Result> lastResult = new AtomicReference<>();
+
+    public IncrementalTileSearch(TileIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Finds all tiles of the index that match the search. The tiles are returned in the order they have been added to
+     * the index, they are only created once they are requested from the matches.<br>
+     * The search does not lock, it may be called by several threads at once.
+     *
+     * @param search The search string the user entered.
+     * @return The tiles that match the search, together with how well they match.
+     */
+    public List<ScoredTile> search(String search) {
+        final TileIndexSnapshot snapshot = index.getSnapshot();
+        final Result last = lastResult.get();
+
+        final SearchQuery query = SearchQuery.of(search);
+        final TileDocuments documents = snapshot.getDocuments();
+        final List<ScoredTile> matches;
+        if (last != null && snapshot.getVersion() == last.version && search.startsWith(last.search)) {
+            if (search.length() == last.search.length()) return last.matches;
+            matches = new ArrayList<>(last.matches.size());
+            for (ScoredTile match : last.matches) {
+                addIfMatching(matches, documents, match.getDocument(), query);
+            }
+        } else {
+            final IntList candidates = snapshot.findCandidates(search);
+            matches = new ArrayList<>(Math.min(candidates.size(), 64));
+            for (int i = 0; i < candidates.size(); i++) {
+                addIfMatching(matches, documents, candidates.get(i), query);
+            }
+        }
+
+        if (matches.size() < FUZZY_SEARCH_THRESHOLD) {
+            addFuzzyMatches(matches, snapshot, search);
+        }
+
+        final Result result = new Result(search, snapshot.getVersion(), Collections.unmodifiableList(matches));
+        lastResult.set(result);
+        return result.matches;
+    }
+
+    private static void addIfMatching(List<ScoredTile> matches, TileDocuments documents, int document, SearchQuery query) {
+        final MatchTier tier = documents.getMatchTier(document, query);
+        if (tier != null) matches.add(new ScoredTile(documents, document, tier));
+    }
+
+    private static void addFuzzyMatches(List<ScoredTile> matches, TileIndexSnapshot snapshot, String search) {
+        final IntList fuzzyMatches = snapshot.findFuzzyMatches(search);
+        if (fuzzyMatches.isEmpty()) return;
+        final BitSet matchingDocuments = new BitSet(snapshot.size());
+        for (ScoredTile match : matches) {
+            matchingDocuments.set(match.getDocument());
+        }
+        for (int i = 0; i < fuzzyMatches.size(); i++) {
+            final int document = fuzzyMatches.get(i);
+            if (!matchingDocuments.get(document)) matches.add(new ScoredTile(snapshot.getDocuments(), document, MatchTier.FUZZY));
+        }
+    }
+
+    /**
+     * Drops the previous result, the next search will query the index again.
+     */
+    public void reset() {
+        lastResult.set(null);
+    }
+
+    private static class Result {
+        private final String search;
+        private final long version;
+        private final List<ScoredTile> matches;
+
+        private Result(String search, long version, List<ScoredTile> matches) {
+            this.search = search;
+            this.version = version;
+            this.matches = matches;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package bar.tile.search;
+
+/**
+ * Describes how well a tile matches a search, from the weakest to the strongest kind of match.
+ */
+public enum MatchTier {
+    /**
+     * Every word of the search is contained in or is a typo away from the beginning of a word of the label, category
+     * or keywords, like <code>yuotube</code> for <code>YouTube</code>.
+     */
+    FUZZY,
+    /**
+     * Every word of the search is contained somewhere in the label, category or keywords.
+     */
+    SUBSTRING,
+    /**
+     * The search matches the beginnings of the words of a field, like <code>vsc</code> for <code>Visual Studio
+     * Code</code>.
+     */
+    SMART_SEARCH,
+    /**
+     * Every word of the search is found at the beginning of a word of the label, category or keywords.
+     */
+    WORD_BOUNDARY,
+    /**
+     * The label starts with the search.
+     */
+    EXACT_PREFIX
+}
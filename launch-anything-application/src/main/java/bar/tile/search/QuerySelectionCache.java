@@ -0,0 +1,108 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+/**
+ * Remembers which tiles the user has executed after entering a search, so that they can be displayed on the first
+ * keystrokes of the same search again, before the index has been searched.<br>
+ * A selection is stored for every prefix of the search, starting at {@link #MIN_PREFIX_LENGTH} characters. Up to
+ * {@link #MAX_TILES_PER_QUERY} tiles are kept per prefix, most recently selected first. Once there are more than
+ * {@link #MAX_QUERIES} prefixes, the least recently used ones are evicted.
+ */
+public class QuerySelectionCache {
+
+    public final static int MIN_PREFIX_LENGTH = 2;
+    public final static int MAX_PREFIX_LENGTH = 24;
+    public final static int MAX_TILES_PER_QUERY = 3;
+    public final static int MAX_QUERIES = 1024;
+
+    private final LinkedHashMap<String, List<String>> selections = new LinkedHashMap<String, List<String>>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+            return size() > MAX_QUERIES;
+        }
+    };
+    private volatile long version = 0;
+
+    /**
+     * Stores that the tile has been executed after the search has been entered.
+     */
+    public synchronized void recordSelection(String search, Tile tile) {
+        if (tile == null || tile.getId() == null) return;
+        final String query = normalize(search);
+        for (int length = MIN_PREFIX_LENGTH; length <= Math.min(query.length(), MAX_PREFIX_LENGTH); length++) {
+            final List<String> tileIds = selections.computeIfAbsent(query.substring(0, length), k -> new ArrayList<>(MAX_TILES_PER_QUERY));
+            tileIds.remove(tile.getId());
+            tileIds.add(0, tile.getId());
+            if (tileIds.size() > MAX_TILES_PER_QUERY) tileIds.remove(tileIds.size() - 1);
+        }
+        version++;
+    }
+
+    /**
+     * @return A number that changes every time a selection is added or removed.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The ids of the tiles that have been selected for the search, most recently selected first.
+     */
+    public synchronized List<String> getSelections(String search) {
+        final List<String> tileIds = selections.get(normalize(search));
+        return tileIds == null ? Collections.emptyList() : new ArrayList<>(tileIds);
+    }
+
+    /**
+     * Removes the tile from all searches, e.g. after it has been deleted.
+     */
+    public synchronized void removeTile(String tileId) {
+        selections.values().removeIf(tileIds -> tileIds.remove(tileId) && tileIds.isEmpty());
+        version++;
+    }
+
+    public synchronized void clear() {
+        selections.clear();
+        version++;
+    }
+
+    public synchronized void loadFromJson(JSONArray json) {
+        clear();
+        if (json == null) return;
+        for (int i = 0; i < json.length(); i++) {
+            final JSONObject entry = json.optJSONObject(i);
+            if (entry == null) continue;
+            final String query = entry.optString("query", null);
+            final JSONArray tilesArray = entry.optJSONArray("tiles");
+            if (query == null || tilesArray == null || tilesArray.length() == 0) continue;
+            final List<String> tileIds = new ArrayList<>(MAX_TILES_PER_QUERY);
+            for (int j = 0; j < Math.min(tilesArray.length(), MAX_TILES_PER_QUERY); j++) {
+                final String tileId = tilesArray.optString(j, null);
+                if (tileId != null) tileIds.add(tileId);
+            }
+            selections.put(query, tileIds);
+        }
+    }
+
+    /**
+     * @return The selections, least recently used first, so that loading them restores the eviction order.
+     */
+    public synchronized JSONArray toJSON() {
+        final JSONArray json = new JSONArray();
+        for (Map.Entry<String, List<String>> entry : selections.entrySet()) {
+            json.put(new JSONObject()
+                    .put("query", entry.getKey())
+                    .put("tiles", new JSONArray(entry.getValue())));
+        }
+        return json;
+    }
+
+    private static String normalize(String search) {
+        return Tile.normalizeLowercase(search).trim().replaceAll(" +", " ");
+    }
+}
@@ -0,0 +1,47 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+/**
+ * A tile that matches a search, together with how well it matches.<br>
+ * The match refers to the document of the tile, the tile is only created once it is requested, which usually only
+ * happens for the matches that are displayed.
+ */
+public class ScoredTile {
+
+    private final TileDocuments documents;
+    private final int document;
+    private final MatchTier tier;
+    private volatile Tile tile;
+
+    public ScoredTile(TileDocuments documents, int document, MatchTier tier) {
+        this.documents = documents;
+        this.document = document;
+        this.tier = tier;
+    }
+
+    public Tile getTile() {
+        Tile tile = this.tile;
+        if (tile == null) {
+            tile = documents.get(document);
+            this.tile = tile;
+        }
+        return tile;
+    }
+
+    public String getId() {
+        return documents.getId(document);
+    }
+
+    public long getLastActivated() {
+        return documents.getLastActivated(document);
+    }
+
+    public MatchTier getTier() {
+        return tier;
+    }
+
+    int getDocument() {
+        return document;
+    }
+}
@@ -0,0 +1,61 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A search string that has been prepared once for matching it against many tiles.<br>
+ * The search is lowercased and split into its words up front, so that {@link Tile#matchesSearch(SearchQuery)} and
+ * {@link Tile#getMatchTier(SearchQuery)} do not have to allocate anything per tile.
+ */
+public class SearchQuery {
+
+    private final String search;
+    private final char[] chars;
+    private final char[] lowercase;
+    private final char[][] lowercaseWords;
+
+    private SearchQuery(String search) {
+        this.search = search;
+        this.chars = search.toCharArray();
+        this.lowercase = Tile.normalizeLowercase(search).toCharArray();
+
+        // empty words are contained in every field, so only the non-empty ones have to be checked
+        final List<char[]> words = new ArrayList<>();
+        for (String word : Tile.normalizeLowercase(search).split(" ")) {
+            if (!word.isEmpty()) words.add(word.toCharArray());
+        }
+        this.lowercaseWords = words.toArray(new char[0][]);
+    }
+
+    public static SearchQuery of(String search) {
+        return new SearchQuery(search);
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    /**
+     * @return The characters of the search as entered by the user. The array is shared and must not be modified.
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * @return The characters of the lowercased search. The array is shared and must not be modified.
+     */
+    public char[] getLowercase() {
+        return lowercase;
+    }
+
+    /**
+     * @return The non-empty words of the lowercased search. The arrays are shared and must not be modified.
+     */
+    public char[][] getLowercaseWords() {
+        return lowercaseWords;
+    }
+}
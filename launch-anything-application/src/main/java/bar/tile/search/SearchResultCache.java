@@ -0,0 +1,64 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of the results of recent searches, so that inputs that are entered repeatedly or are recalled from the
+ * input history do not have to be searched again.<br>
+ * Every result is stored together with the version of the tiles it has been computed from. A result is only returned
+ * for the same version, so any modification of the tiles invalidates all cached results. Once more than
+ * <code>capacity</code> results are cached, the least recently used ones are evicted.
+ */
+public class SearchResultCache {
+
+    private final LinkedHashMap<String, CachedResult> results;
+
+    public SearchResultCache(int capacity) {
+        this.results = new LinkedHashMap<String, CachedResult>(capacity + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param search  The search string the user entered.
+     * @param version The current version of the tiles.
+     * @return The cached result or <code>null</code> if there is none for this version.
+     */
+    public synchronized List<Tile> get(String search, long version) {
+        final CachedResult entry = results.get(search);
+        if (entry == null) return null;
+        if (entry.version != version) {
+            results.remove(search);
+            return null;
+        }
+        return entry.tiles;
+    }
+
+    /**
+     * @param tiles The result, must not be modified afterwards.
+     */
+    public synchronized void put(String search, long version, List<Tile> tiles) {
+        results.put(search, new CachedResult(version, tiles));
+    }
+
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    private static class CachedResult {
+        private final long version;
+        private final List<Tile> tiles;
+
+        private CachedResult(long version, List<Tile> tiles) {
+            this.version = version;
+            this.tiles = tiles;
+        }
+    }
+}
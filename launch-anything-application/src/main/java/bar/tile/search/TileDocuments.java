@@ -0,0 +1,89 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * The tiles a {@link TileIndexSnapshot} is built from, addressed by their position.<br>
+ * Implementations may store the tiles in a compact form and only create the {@link Tile} objects when they are
+ * accessed, in which case every call of {@link #get(int)} may return a new object for the same tile.
+ */
+public interface TileDocuments {
+
+    int size();
+
+    Tile get(int document);
+
+    /**
+     * @return The position of the tile or <code>-1</code> if it is not one of the documents.
+     */
+    int indexOf(Tile tile);
+
+    /**
+     * @return The first tile with the given id or <code>null</code> if there is none.
+     */
+    Tile findById(String id);
+
+    /**
+     * @return The id of the tile of the document, same as {@link Tile#getId()}.
+     */
+    default String getId(int document) {
+        return get(document).getId();
+    }
+
+    /**
+     * @return The last time the tile of the document has been activated, same as {@link Tile#getLastActivated()}.
+     */
+    default long getLastActivated(int document) {
+        return get(document).getLastActivated();
+    }
+
+    /**
+     * Same as {@link Tile#getMatchTier(SearchQuery)} of the tile of the document. Implementations that create their
+     * tiles on access should determine the tier without creating the tile.
+     */
+    default MatchTier getMatchTier(int document, SearchQuery query) {
+        return get(document).getMatchTier(query);
+    }
+
+    /**
+     * Passes the label, category and keywords of every document to the visitor, in the order of the documents. A field
+     * may be passed in several parts, as long as it is split at spaces and all of its parts are passed. Implementations
+     * that create their tiles on access should pass the parts they store instead, and should pass the same string
+     * object for parts that are shared between documents.
+     */
+    default void visitSearchText(SearchTextVisitor visitor) {
+        for (int document = 0; document < size(); document++) {
+            final Tile tile = get(document);
+            visitor.visit(document, tile.getLabel());
+            visitor.visit(document, tile.getCategory());
+            visitor.visit(document, tile.getKeywords());
+        }
+    }
+
+    /**
+     * @return A read-only view of the documents.
+     */
+    default List<Tile> asList() {
+        return new AbstractList<Tile>() {
+            @Override
+            public Tile get(int index) {
+                return TileDocuments.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return TileDocuments.this.size();
+            }
+        };
+    }
+
+    interface SearchTextVisitor {
+        /**
+         * @param text A part of the label, category or keywords of the document, may be <code>null</code>.
+         */
+        void visit(int document, String text);
+    }
+}
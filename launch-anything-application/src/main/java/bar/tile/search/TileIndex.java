@@ -0,0 +1,105 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inverted index over the searchable fields (label, category and keywords) of a list of tiles.<br>
+ * The index is used to narrow down the tiles that have to be checked by {@link Tile#matchesSearch(String)}, so that the
+ * cost of a search grows with the amount of matching tiles instead of the amount of tiles in total. The index is
+ * searched using an {@link IncrementalTileSearch}.
+ * <p>
+ * The indexed state is kept in an immutable {@link TileIndexSnapshot}. Every modification builds a new snapshot and
+ * publishes it atomically, so searches never have to lock and never observe a partially modified index.<br>
+ * Adding, removing or updating a single tile therefore costs as much as building the index from scratch. This is fine
+ * for the tiles the user creates, which are edited one at a time and are at most a few thousand; large sets of tiles
+ * that change often should be kept in a compact {@link TileDocuments} and be rebuilt in batches instead.
+ */
+public class TileIndex {
+
+    private volatile TileIndexSnapshot snapshot = new TileIndexSnapshot(new TileListDocuments(Collections.emptyList()), 0);
+
+    /**
+     * @return The current state of the index. Searches that have to see a consistent index across several calls should
+     * use the same snapshot for all of them.
+     */
+    public TileIndexSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public synchronized void rebuild(Collection<Tile> tiles) {
+        publish(tiles);
+    }
+
+    /**
+     * Replaces the indexed tiles with tiles that are stored in a compact form. Tiles can not be added to or removed from
+     * such an index individually, it has to be rebuilt instead.
+     */
+    public synchronized void rebuild(TileDocuments documents) {
+        publish(documents);
+    }
+
+    public synchronized void add(Tile tile) {
+        if (tile == null || snapshot.contains(tile)) return;
+        final List<Tile> tiles = new ArrayList<>(snapshot.getTiles());
+        tiles.add(tile);
+        publish(tiles);
+    }
+
+    public synchronized void remove(Tile tile) {
+        if (!snapshot.contains(tile)) return;
+        final List<Tile> tiles = new ArrayList<>(snapshot.getTiles());
+        tiles.removeIf(t -> t == tile);
+        publish(tiles);
+    }
+
+    /**
+     * Re-indexes a tile after its label, category or keywords have been modified.<br>
+     * Tiles that are not part of this index are ignored.
+     */
+    public synchronized void update(Tile tile) {
+        if (tile == null || !snapshot.contains(tile)) return;
+        publish(snapshot.getDocuments());
+    }
+
+    private void publish(Collection<Tile> tiles) {
+        publish(new TileListDocuments(tiles));
+    }
+
+    private void publish(TileDocuments documents) {
+        snapshot = new TileIndexSnapshot(documents, snapshot.getVersion() + 1);
+    }
+
+    public boolean contains(Tile tile) {
+        return snapshot.contains(tile);
+    }
+
+    /**
+     * @return A number that changes every time a tile is added to, removed from or updated in the index.
+     */
+    public long getVersion() {
+        return snapshot.getVersion();
+    }
+
+    /**
+     * @return The first tile with the given id or <code>null</code> if there is none.
+     */
+    public Tile findById(String id) {
+        return snapshot.findById(id);
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * @return The tiles of the index in the order they have been added. The list is unmodifiable.
+     */
+    public List<Tile> getTiles() {
+        return snapshot.getTiles();
+    }
+}
@@ -0,0 +1,448 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.*;
+
+/**
+ * Immutable state of a {@link TileIndex}: the indexed tiles and the inverted index over their searchable fields (label,
+ * category and keywords).<br>
+ * A snapshot is never modified after it has been created, so it can be searched by any amount of threads at once
+ * without locking. Modifications of the index create a new snapshot instead.
+ * <p>
+ * The index is built from the text the documents pass to {@link TileDocuments#visitSearchText}, the tiles are not
+ * created for it. The words are stored in alphabetical order and are identified by their position, and the documents
+ * containing a word are stored in a single array for all words.
+ */
+public class TileIndexSnapshot {
+
+    private final static int GRAM_LENGTH = 3;
+    // the minimum length of a search token to allow one or two typos in it
+    private final static int FUZZY_ONE_EDIT_LENGTH = 4;
+    private final static int FUZZY_TWO_EDITS_LENGTH = 8;
+    private final static int[] NONE = new int[0];
+
+    private final long version;
+    private final TileDocuments documents;
+
+    // words of the lowercased fields in alphabetical order, so that words with a common prefix are next to each other
+    private final String[] words;
+    // the documents containing the word at position i are postings[postingOffsets[i]] to postings[postingOffsets[i + 1]]
+    private final int[] postingOffsets;
+    private final int[] postings;
+    // all substrings of up to GRAM_LENGTH characters of the words, pointing to the positions of the words
+    private final Map<String, int[]> grams;
+    // first characters of the words of the normalized fields (split at upper case letters and path separators)
+    private final Map<Character, int[]> initials;
+
+    TileIndexSnapshot(TileDocuments documents, long version) {
+        this.version = version;
+        this.documents = documents;
+
+        final Builder builder = new Builder();
+        documents.visitSearchText(builder);
+
+        // sort the words and store their documents in the sorted order
+        final int[] order = builder.sortWords();
+        words = new String[order.length];
+        postingOffsets = new int[order.length + 1];
+        int postingCount = 0;
+        for (IntList wordDocuments : builder.wordDocuments) postingCount += wordDocuments.size();
+        postings = new int[postingCount];
+        int offset = 0;
+        for (int i = 0; i < order.length; i++) {
+            words[i] = builder.words.get(order[i]);
+            postingOffsets[i] = offset;
+            final IntList wordDocuments = builder.wordDocuments.get(order[i]);
+            for (int j = 0; j < wordDocuments.size(); j++) postings[offset++] = wordDocuments.get(j);
+        }
+        postingOffsets[order.length] = offset;
+
+        final Map<String, IntList> gramWords = new HashMap<>();
+        for (int i = 0; i < words.length; i++) {
+            final String word = words[i];
+            for (int gramLength = 1; gramLength <= GRAM_LENGTH; gramLength++) {
+                for (int j = 0; j + gramLength <= word.length(); j++) {
+                    final IntList list = gramWords.computeIfAbsent(word.substring(j, j + gramLength), k -> new IntList());
+                    if (list.isEmpty() || list.last() != i) list.add(i);
+                }
+            }
+        }
+        grams = new HashMap<>(gramWords.size() * 4 / 3 + 1);
+        gramWords.forEach((gram, list) -> grams.put(gram, list.toArray()));
+        initials = new HashMap<>(builder.initials.size() * 4 / 3 + 1);
+        builder.initials.forEach((initial, list) -> initials.put(initial, list.toArray()));
+    }
+
+    /**
+     * @return A number that is different for every snapshot of the same index.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean contains(Tile tile) {
+        return tile != null && documents.indexOf(tile) != -1;
+    }
+
+    /**
+     * @return The first tile with the given id or <code>null</code> if there is none.
+     */
+    public Tile findById(String id) {
+        return id == null ? null : documents.findById(id);
+    }
+
+    public TileDocuments getDocuments() {
+        return documents;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * @return The tiles of this snapshot in the order they have been added to the index. The list is unmodifiable.
+     */
+    public List<Tile> getTiles() {
+        return documents.asList();
+    }
+
+    /**
+     * Finds all documents that might match the search.
+     *
+     * @param search The search string the user entered.
+     * @return A superset of the documents that match the search, in ascending order.
+     */
+    IntList findCandidates(String search) {
+        if (search.isEmpty() || search.charAt(0) == ' ') {
+            // the smart search may match the search from any word in this case
+            return allDocuments();
+        }
+
+        final BitSet candidates = findContainingCandidates(Tile.normalizeLowercase(search).split(" "));
+        if (candidates == null) {
+            return allDocuments();
+        }
+        addSmartSearchCandidates(candidates, search);
+        return toList(candidates);
+    }
+
+    /**
+     * Finds the documents that match the search if typos are allowed: every token of the search has to be contained in
+     * a word of the tiles or has to be within a distance of one edit (two edits for long tokens) of the beginning of a
+     * word. Insertions, deletions, substitutions and transpositions of adjacent characters count as one edit. Tokens
+     * that are too short to allow typos have to be contained in a word.<br>
+     * In contrast to {@link #findCandidates(String)}, the documents do not have to be checked by the caller.
+     *
+     * @param search The search string the user entered.
+     * @return The matching documents in ascending order, empty if no token of the search is long enough to allow typos.
+     */
+    IntList findFuzzyMatches(String search) {
+        BitSet matches = null;
+        boolean allowsTypos = false;
+        for (String token : Tile.normalizeLowercase(search).split(" ")) {
+            if (token.isEmpty()) continue;
+
+            final BitSet tokenMatches = new BitSet(documents.size());
+            for (int word : findWordsContaining(token)) {
+                addPostings(tokenMatches, word);
+            }
+            if (token.length() >= FUZZY_ONE_EDIT_LENGTH) {
+                allowsTypos = true;
+                final IntList similarWords = findWordsWithPrefixWithin(token.toCharArray(), token.length() >= FUZZY_TWO_EDITS_LENGTH ? 2 : 1);
+                for (int i = 0; i < similarWords.size(); i++) {
+                    addPostings(tokenMatches, similarWords.get(i));
+                }
+            }
+
+            if (matches == null) {
+                matches = tokenMatches;
+            } else {
+                matches.and(tokenMatches);
+            }
+            if (matches.isEmpty()) break;
+        }
+        if (!allowsTypos || matches == null) return new IntList(1);
+        return toList(matches);
+    }
+
+    private IntList allDocuments() {
+        final IntList all = new IntList(documents.size());
+        for (int document = 0; document < documents.size(); document++) all.add(document);
+        return all;
+    }
+
+    private static IntList toList(BitSet documents) {
+        final IntList list = new IntList(documents.cardinality());
+        for (int document = documents.nextSetBit(0); document >= 0; document = documents.nextSetBit(document + 1)) {
+            list.add(document);
+        }
+        return list;
+    }
+
+    /**
+     * Finds the words that start with a prefix that is within the given edit distance of the token.<br>
+     * The sorted words are walked like a trie: the rows of the edit distance matrix are only computed once per common
+     * prefix of consecutive words, and all words with a prefix are skipped at once as soon as no continuation of the
+     * prefix can be within the distance anymore, or if the prefix itself already is.
+     */
+    private IntList findWordsWithPrefixWithin(char[] token, int maxDistance) {
+        final IntList matchingWords = new IntList();
+        final int m = token.length;
+        // rows[d][j] is the distance between the first d characters of the word and the first j characters of the token
+        final List<int[]> rows = new ArrayList<>();
+        rows.add(new int[m + 1]);
+        for (int j = 0; j <= m; j++) rows.get(0)[j] = j;
+
+        String previousWord = "";
+        int computedDepth = 0;
+        int i = 0;
+        while (i < words.length) {
+            final String word = words[i];
+            int depth = Math.min(commonPrefixLength(previousWord, word), computedDepth);
+            previousWord = word;
+
+            int skipDepth = -1;
+            boolean matching = false;
+            while (depth < word.length()) {
+                depth++;
+                if (rows.size() <= depth) rows.add(new int[m + 1]);
+                final int rowMinimum = computeRow(rows, depth, word, token);
+                computedDepth = depth;
+
+                if (rows.get(depth)[m] <= maxDistance) {
+                    matching = true;
+                    skipDepth = depth;
+                    break;
+                }
+                // a transposition may refer back two rows, so both rows have to exceed the distance
+                if (rowMinimum > maxDistance && minimum(rows.get(depth - 1)) > maxDistance) {
+                    skipDepth = depth;
+                    break;
+                }
+            }
+
+            if (skipDepth == -1) {
+                i++;
+                continue;
+            }
+            final int end = endOfPrefixRange(i, word, skipDepth);
+            if (matching) {
+                for (int k = i; k < end; k++) matchingWords.add(k);
+            }
+            i = end;
+        }
+        return matchingWords;
+    }
+
+    /**
+     * Computes the row of the optimal string alignment distance for the first <code>depth</code> characters of the word.
+     *
+     * @return The minimum value of the row.
+     */
+    private static int computeRow(List<int[]> rows, int depth, String word, char[] token) {
+        final int[] row = rows.get(depth);
+        final int[] previous = rows.get(depth - 1);
+        final int[] beforePrevious = depth >= 2 ? rows.get(depth - 2) : null;
+        final char c = word.charAt(depth - 1);
+        row[0] = depth;
+        int rowMinimum = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int distance = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + (token[j - 1] == c ? 0 : 1));
+            if (beforePrevious != null && j >= 2 && token[j - 1] == word.charAt(depth - 2) && token[j - 2] == c) {
+                distance = Math.min(distance, beforePrevious[j - 2] + 1);
+            }
+            row[j] = distance;
+            rowMinimum = Math.min(rowMinimum, distance);
+        }
+        return rowMinimum;
+    }
+
+    private static int minimum(int[] row) {
+        int minimum = Integer.MAX_VALUE;
+        for (int value : row) minimum = Math.min(minimum, value);
+        return minimum;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        final int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    /**
+     * @return The position of the first word from <code>start</code> on that does not share the first
+     * <code>prefixLength</code> characters with the word at <code>start</code>.
+     */
+    private int endOfPrefixRange(int start, String word, int prefixLength) {
+        final String prefix = word.substring(0, prefixLength);
+        int low = start + 1, high = words.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (words[middle].startsWith(prefix)) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Finds the documents that contain every one of the tokens in one of their lowercased fields.
+     *
+     * @return The matching documents or <code>null</code> if there is no non-empty token.
+     */
+    private BitSet findContainingCandidates(String[] tokens) {
+        BitSet candidates = null;
+        for (String token : tokens) {
+            // an empty token is contained in every field
+            if (token.isEmpty()) continue;
+
+            // the tokens never contain spaces, so a field contains a token exactly if one of its words does
+            final BitSet tokenCandidates = new BitSet(documents.size());
+            for (int word : findWordsContaining(token)) {
+                addPostings(tokenCandidates, word);
+            }
+
+            if (candidates == null) {
+                candidates = tokenCandidates;
+            } else {
+                candidates.and(tokenCandidates);
+            }
+            if (candidates.isEmpty()) break;
+        }
+        return candidates;
+    }
+
+    /**
+     * @return The positions of the words that contain the token, in ascending order.
+     */
+    private int[] findWordsContaining(String token) {
+        // short tokens are grams themselves, so the list is exact
+        if (token.length() <= GRAM_LENGTH) {
+            final int[] matchingWords = grams.get(token);
+            return matchingWords != null ? matchingWords : NONE;
+        }
+
+        // every word containing the token also contains all of its trigrams, use the rarest one as candidates
+        int[] rarestGram = null;
+        for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+            final int[] gramWords = grams.get(token.substring(i, i + GRAM_LENGTH));
+            if (gramWords == null) return NONE;
+            if (rarestGram == null || gramWords.length < rarestGram.length) rarestGram = gramWords;
+        }
+
+        final IntList matchingWords = new IntList();
+        for (int word : rarestGram) {
+            if (words[word].contains(token)) matchingWords.add(word);
+        }
+        return matchingWords.toArray();
+    }
+
+    /**
+     * The smart search has to match the first character of the search at the beginning of a normalized word. The second
+     * character is then either found directly behind an occurrence of the first one or at the beginning of a later word.
+     */
+    private void addSmartSearchCandidates(BitSet candidates, String search) {
+        final int[] firstInitials = initials.get(search.charAt(0));
+        if (firstInitials == null) return;
+
+        BitSet required = null;
+        if (search.length() > 1 && search.charAt(1) != ' ' && search.charAt(1) != search.charAt(0)) {
+            required = new BitSet(documents.size());
+            final int[] secondInitials = initials.get(search.charAt(1));
+            if (secondInitials != null) {
+                for (int document : secondInitials) required.set(document);
+            }
+            for (int word : findWordsContaining(search.substring(0, 2))) {
+                addPostings(required, word);
+            }
+        }
+
+        for (int document : firstInitials) {
+            if (required == null || required.get(document)) candidates.set(document);
+        }
+    }
+
+    private void addPostings(BitSet target, int word) {
+        for (int i = postingOffsets[word]; i < postingOffsets[word + 1]; i++) {
+            target.set(postings[i]);
+        }
+    }
+
+    /**
+     * Collects the words and initials of the documents. The parts of the fields are split into words once per distinct
+     * part, which makes parts that are shared by many documents, like the directories of generated files, cheap.
+     */
+    private static class Builder implements TileDocuments.SearchTextVisitor {
+        private final Map<String, Part> parts = new HashMap<>();
+        private final Map<String, Integer> wordIds = new HashMap<>();
+        private final List<String> words = new ArrayList<>();
+        private final List<IntList> wordDocuments = new ArrayList<>();
+        private final Map<Character, IntList> initials = new HashMap<>();
+
+        @Override
+        public void visit(int document, String text) {
+            if (text == null || text.isEmpty()) return;
+            final Part part = parts.computeIfAbsent(text, this::createPart);
+            for (int word : part.words) {
+                final IntList list = wordDocuments.get(word);
+                // the documents are visited in order, so a document that contains a word twice is always the last entry
+                if (list.isEmpty() || list.last() != document) list.add(document);
+            }
+            for (IntList list : part.initials) {
+                if (list.isEmpty() || list.last() != document) list.add(document);
+            }
+        }
+
+        private Part createPart(String text) {
+            final IntList partWords = new IntList();
+            final String lowercase = Tile.normalizeLowercase(text);
+            int start = 0;
+            while (start < lowercase.length()) {
+                int end = lowercase.indexOf(' ', start);
+                if (end == -1) end = lowercase.length();
+                if (end > start) partWords.add(wordIds.computeIfAbsent(lowercase.substring(start, end), this::createWord));
+                start = end + 1;
+            }
+
+            final List<IntList> partInitials = new ArrayList<>();
+            final String normalized = Tile.normalize(text);
+            for (int i = 0; i < normalized.length(); i++) {
+                final char c = normalized.charAt(i);
+                if (c != ' ' && (i == 0 || normalized.charAt(i - 1) == ' ')) {
+                    final IntList list = initials.computeIfAbsent(c, k -> new IntList());
+                    if (!partInitials.contains(list)) partInitials.add(list);
+                }
+            }
+            return new Part(partWords.toArray(), partInitials.toArray(new IntList[0]));
+        }
+
+        private int createWord(String word) {
+            words.add(word);
+            wordDocuments.add(new IntList(1));
+            return words.size() - 1;
+        }
+
+        /**
+         * @return The ids of the words in alphabetical order.
+         */
+        private int[] sortWords() {
+            final Integer[] order = new Integer[words.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparing(words::get));
+            final int[] sorted = new int[order.length];
+            for (int i = 0; i < order.length; i++) sorted[i] = order[i];
+            return sorted;
+        }
+    }
+
+    private static class Part {
+        private final int[] words;
+        private final IntList[] initials;
+
+        private Part(int[] words, IntList[] initials) {
+            this.words = words;
+            this.initials = initials;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.*;
+
+/**
+ * Documents that are kept as {@link Tile} objects. Tiles that are contained several times are only added once.
+ */
+class TileListDocuments implements TileDocuments {
+
+    private final List<Tile> tiles;
+    private final Map<Tile, Integer> documentIds;
+    private final Map<String, Tile> tilesById;
+
+    TileListDocuments(Collection<Tile> tiles) {
+        final List<Tile> documents = new ArrayList<>(tiles.size());
+        final Map<Tile, Integer> documentIds = new IdentityHashMap<>(tiles.size());
+        final Map<String, Tile> tilesById = new HashMap<>(tiles.size());
+        for (Tile tile : tiles) {
+            if (tile == null || documentIds.containsKey(tile)) continue;
+            documentIds.put(tile, documents.size());
+            documents.add(tile);
+            if (tile.getId() != null) tilesById.putIfAbsent(tile.getId(), tile);
+        }
+        this.tiles = Collections.unmodifiableList(documents);
+        this.documentIds = documentIds;
+        this.tilesById = tilesById;
+    }
+
+    @Override
+    public int size() {
+        return tiles.size();
+    }
+
+    @Override
+    public Tile get(int document) {
+        return tiles.get(document);
+    }
+
+    @Override
+    public int indexOf(Tile tile) {
+        final Integer document = documentIds.get(tile);
+        return document != null ? document : -1;
+    }
+
+    @Override
+    public Tile findById(String id) {
+        return tilesById.get(id);
+    }
+
+    @Override
+    public List<Tile> asList() {
+        return tiles;
+    }
+}
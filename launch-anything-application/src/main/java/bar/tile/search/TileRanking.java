@@ -0,0 +1,59 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Ranks the matching tiles of all tile sources against each other.<br>
+ * Tiles are ordered by their {@link MatchTier} first and by the given sort key (the frecency of the tiles) second. Tiles
+ * that are equal in both are kept in the order they have been added in. Every tier is only sorted once a tile of that
+ * tier is requested, so as long as the user does not scroll past the best matches, the weaker tiers are never sorted.
+ */
+public class TileRanking<K extends Comparable<? super K>> {
+
+    private final Function<ScoredTile, K> sortKey;
+    private final int initialSortedTiles;
+    private final List<List<ScoredTile>> tiers = new ArrayList<>();
+    private final Set<String> excludedTileIds = new HashSet<>();
+
+    /**
+     * @param sortKey            The key to order the matches within a tier by, lower keys first. It is read once per
+     *                           match when the first tile of a tier is requested.
+     * @param initialSortedTiles The amount of tiles per tier that are sorted when the first tile of a tier is requested.
+     */
+    public TileRanking(Function<ScoredTile, K> sortKey, int initialSortedTiles) {
+        this.sortKey = sortKey;
+        this.initialSortedTiles = initialSortedTiles;
+        for (int i = 0; i < MatchTier.values().length; i++) {
+            tiers.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Tiles that are ranked separately by the caller, they are skipped by {@link #addAll(List)}. The tiles are compared
+     * by their ids, as generated tiles may be represented by several objects.
+     */
+    public void exclude(Collection<Tile> tiles) {
+        for (Tile tile : tiles) {
+            excludedTileIds.add(tile.getId());
+        }
+    }
+
+    public void addAll(List<ScoredTile> matches) {
+        for (ScoredTile match : matches) {
+            if (!excludedTileIds.isEmpty() && excludedTileIds.contains(match.getId())) continue;
+            tiers.get(match.getTier().ordinal()).add(match);
+        }
+    }
+
+    /**
+     * @param rankedTiles The list to append the ranked tiles to, best match first.
+     */
+    public void appendTo(ConcatenatedTileList rankedTiles) {
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            rankedTiles.addSegment(new TopKTileList<>(tiers.get(i), sortKey, initialSortedTiles));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Read-only view of a list of matches in sorted order that only sorts as many matches as have been requested, and only
+ * creates the tiles of the requested matches.<br>
+ * Only the first few results are displayed to the user, so instead of sorting all matching tiles the best
+ * <code>limit</code> tiles are selected using a bounded heap. Once a tile behind the selected ones is requested (by
+ * scrolling through the results), the selection is expanded by doubling the limit. The order is the same as the one of
+ * a stable sort of the source list.<br>
+ * The tiles are sorted by a key that is read once for every tile when the first tile is requested, so the order stays
+ * the same while the selection is expanded, even if the values the keys are read from change in the meantime.
+ *
+ * @param <K> The type of the sort key, lower keys are sorted first.
+ */
+public class TopKTileList<K extends Comparable<? super K>> extends AbstractList<Tile> {
+
+    private final List<ScoredTile> source;
+    private final Function<ScoredTile, K> sortKey;
+    private List<K> keys;
+    private List<ScoredTile> selected = Collections.emptyList();
+    private int limit;
+
+    /**
+     * @param source       The matches to sort. The list must not be modified afterwards.
+     * @param sortKey      The key to sort the matches by.
+     * @param initialLimit The amount of tiles to select when the first tile is requested.
+     */
+    public TopKTileList(List<ScoredTile> source, Function<ScoredTile, K> sortKey, int initialLimit) {
+        this.source = source;
+        this.sortKey = sortKey;
+        this.limit = Math.max(1, initialLimit);
+    }
+
+    @Override
+    public synchronized Tile get(int index) {
+        if (index < 0 || index >= source.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + source.size());
+        }
+        if (index >= selected.size()) {
+            while (limit <= index) limit *= 2;
+            selected = select(limit);
+        }
+        return selected.get(index).getTile();
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    private List<ScoredTile> select(int limit) {
+        if (keys == null) {
+            final List<K> keys = new ArrayList<>(source.size());
+            for (ScoredTile match : source) {
+                keys.add(sortKey.apply(match));
+            }
+            this.keys = keys;
+        }
+
+        // ties are broken by the position in the source list to keep the order of a stable sort
+        final Comparator<Integer> byRank = (a, b) -> {
+            final int result = keys.get(a).compareTo(keys.get(b));
+            return result != 0 ? result : Integer.compare(a, b);
+        };
+
+        if (limit >= source.size()) {
+            final Integer[] order = new Integer[source.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, byRank);
+            final ScoredTile[] sorted = new ScoredTile[order.length];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = source.get(order[i]);
+            }
+            return Arrays.asList(sorted);
+        }
+
+        // the worst of the selected tiles is at the head of the heap
+        final PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, byRank.reversed());
+        for (int i = 0; i < source.size(); i++) {
+            if (heap.size() < limit) {
+                heap.add(i);
+            } else if (byRank.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+
+        final ScoredTile[] sorted = new ScoredTile[heap.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = source.get(heap.poll());
+        }
+        return Arrays.asList(sorted);
+    }
+}
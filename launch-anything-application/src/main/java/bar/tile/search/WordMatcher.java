@@ -0,0 +1,79 @@
+package bar.tile.search;
+
+/**
+ * Matching primitives on character arrays that are used to match a {@link SearchQuery} against the precomputed search
+ * fields of a tile. None of the methods allocate memory. Words in the fields are separated by single spaces.
+ */
+public class WordMatcher {
+
+    private WordMatcher() {
+    }
+
+    public static boolean startsWith(char[] text, char[] prefix) {
+        if (prefix.length > text.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (text[i] != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    public static boolean contains(char[] text, char[] word) {
+        return indexOf(text, word, 0) != -1;
+    }
+
+    /**
+     * @return <code>true</code> if the word is found at the beginning of one of the words of the text.
+     */
+    public static boolean containsAtWordStart(char[] text, char[] word) {
+        for (int i = indexOf(text, word, 0); i != -1; i = indexOf(text, word, i + 1)) {
+            if (i == 0 || text[i - 1] == ' ') return true;
+        }
+        return false;
+    }
+
+    private static int indexOf(char[] text, char[] word, int from) {
+        if (word.length == 0) return from <= text.length ? from : -1;
+        final char first = word[0];
+        final int last = text.length - word.length;
+        for (int i = from; i <= last; i++) {
+            if (text[i] != first) continue;
+            int j = 1;
+            while (j < word.length && text[i + j] == word[j]) j++;
+            if (j == word.length) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Advances character per character through the attribute, where the first character of the search has to match
+     * the beginning of a word. The following characters either continue the current match or skip to the beginning of
+     * a later word. This allows searches like <code>fiz</code> to match <code>file zilla</code>.
+     *
+     * @param attribute The normalized attribute of the tile.
+     * @param search    The search as entered by the user, must not be empty.
+     */
+    public static boolean smartSearch(char[] attribute, char[] search) {
+        int amountFound = 0;
+        boolean mayMatchNonBeginningCharacter = false;
+        for (int i = 0; i < attribute.length; i++) {
+            if (attribute[i] == search[amountFound]) {
+                if (i == 0 || attribute[i - 1] == ' ') {
+                    amountFound++;
+                    mayMatchNonBeginningCharacter = true;
+                    if (amountFound >= search.length) return true;
+                    continue;
+                }
+            } else if (amountFound > 0 && attribute[i] == search[amountFound - 1]) {
+                mayMatchNonBeginningCharacter = true;
+                continue;
+            }
+
+            if (mayMatchNonBeginningCharacter) {
+                if (attribute[i] == search[amountFound]) amountFound++;
+                else mayMatchNonBeginningCharacter = false;
+            }
+            if (amountFound >= search.length) return true;
+        }
+        return false;
+    }
+}
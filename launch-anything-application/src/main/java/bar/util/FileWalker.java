@@ -0,0 +1,242 @@
+package bar.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Lists the files in directory trees, with one task per directory that is executed in a shared {@link ForkJoinPool}.
+ * <br>
+ * The entries of a directory are read using {@link Files#walkFileTree(Path, Set, int, FileVisitor)} with a depth of
+ * <code>1</code>, which passes the attributes that have been read together with the directory entries to the visitor
+ * where the file system supports it, instead of querying every file separately. Symbolic links to directories are
+ * skipped.<br>
+ * The files are listed in a fixed order, the files of a directory before the files of its subdirectories, and the limit
+ * cuts the list in that order, so the same tree always results in the same files.
+ */
+public class FileWalker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileWalker.class);
+
+    // reading directories mostly waits for the file system, so there are more threads than cores
+    private final static ForkJoinPool POOL = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+    private int maxDepth = Integer.MAX_VALUE;
+    private int limit = Integer.MAX_VALUE;
+    private final List<PathMatcher> excludes = new ArrayList<>();
+    private Predicate<String> fileFilter = name -> true;
+    private Consumer<Path> directoryVisitor = directory -> {
+    };
+
+    /**
+     * @param maxDepth The maximum amount of directory levels below the root, where the files in the root are at depth
+     *                 <code>1</code>.
+     */
+    public FileWalker setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * @param limit The maximum amount of files listed by a call of {@link #walk(File...)}, across all roots.
+     */
+    public FileWalker setLimit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * @param glob A glob pattern like <code>node_modules</code> or <code>*.tmp</code> that is matched against the names
+     *             of the files and directories. Matching directories are skipped with all of their contents.
+     */
+    public FileWalker addExclude(String glob) {
+        excludes.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        return this;
+    }
+
+    /**
+     * @param fileFilter Checks the names of the files that are listed, directories are always traversed.
+     */
+    public FileWalker setFileFilter(Predicate<String> fileFilter) {
+        this.fileFilter = fileFilter;
+        return this;
+    }
+
+    /**
+     * @param directoryVisitor Called with every directory whose entries are read, from several threads at once.
+     */
+    public FileWalker setDirectoryVisitor(Consumer<Path> directoryVisitor) {
+        this.directoryVisitor = directoryVisitor;
+        return this;
+    }
+
+    /**
+     * @return The files in the directory trees, in the order of the roots. Roots that are not a directory are skipped.
+     */
+    public List<File> walk(File... roots) {
+        final List<DirectoryTask> tasks = new ArrayList<>();
+        for (File root : roots) {
+            if (root != null && root.isDirectory()) tasks.add(new DirectoryTask(root.toPath().toAbsolutePath(), 0, null));
+        }
+        return invoke(tasks);
+    }
+
+    /**
+     * Passes the files in the directory trees to the consumer while they are walked, instead of listing all of them
+     * first. The consumer is called once per directory with its files, from several threads at once and in no
+     * particular order. The limit is not applied.
+     */
+    public void walk(Consumer<List<File>> fileConsumer, File... roots) {
+        final List<DirectoryTask> tasks = new ArrayList<>();
+        for (File root : roots) {
+            if (root != null && root.isDirectory()) tasks.add(new DirectoryTask(root.toPath().toAbsolutePath(), 0, fileConsumer));
+        }
+        if (maxDepth < 1 || tasks.isEmpty()) return;
+        POOL.invoke(new RecursiveTask<List<File>>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected List<File> compute() {
+                return joinAll(tasks, Integer.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * Lists the files in a directory inside the tree of the root, e.g. after the directory has been created. The depth
+     * limit and the exclusions are applied as if the whole tree of the root was walked.
+     */
+    public List<File> walk(File root, File directory) {
+        final Path rootPath = root.toPath().toAbsolutePath();
+        final Path directoryPath = directory.toPath().toAbsolutePath();
+        if (!directory.isDirectory() || !directoryPath.startsWith(rootPath)) return new ArrayList<>();
+        final Path relative = rootPath.relativize(directoryPath);
+        final int depth = relative.toString().isEmpty() ? 0 : relative.getNameCount();
+        if (depth >= maxDepth || isAnyExcluded(relative)) return new ArrayList<>();
+        return invoke(Collections.singletonList(new DirectoryTask(directoryPath, depth, null)));
+    }
+
+    /**
+     * @return <code>true</code> if a walk of the root would list the file, regardless of the limit.
+     */
+    public boolean accepts(File root, File file) {
+        final Path rootPath = root.toPath().toAbsolutePath();
+        final Path filePath = file.toPath().toAbsolutePath();
+        if (!filePath.startsWith(rootPath) || filePath.equals(rootPath)) return false;
+        final Path relative = rootPath.relativize(filePath);
+        return relative.getNameCount() <= maxDepth && !isAnyExcluded(relative) && fileFilter.test(file.getName());
+    }
+
+    private List<File> invoke(List<DirectoryTask> tasks) {
+        if (maxDepth < 1 || limit < 1 || tasks.isEmpty()) return new ArrayList<>();
+
+        return POOL.invoke(new RecursiveTask<List<File>>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected List<File> compute() {
+                return joinAll(tasks, limit);
+            }
+        });
+    }
+
+    private boolean isExcluded(Path path) {
+        final Path name = path.getFileName();
+        if (name == null) return false;
+        for (PathMatcher exclude : excludes) {
+            if (exclude.matches(name)) return true;
+        }
+        return false;
+    }
+
+    private boolean isAnyExcluded(Path relative) {
+        for (Path name : relative) {
+            if (isExcluded(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs the tasks in parallel and joins their files in the order of the tasks, up to the limit. Tasks that have not
+     * started yet once the limit has been reached are cancelled.
+     */
+    private static List<File> joinAll(List<DirectoryTask> tasks, int limit) {
+        for (int i = tasks.size() - 1; i > 0; i--) {
+            tasks.get(i).fork();
+        }
+        final List<File> files = new ArrayList<>(tasks.get(0).invoke());
+        for (int i = 1; i < tasks.size(); i++) {
+            if (files.size() >= limit) tasks.get(i).cancel(false);
+            else files.addAll(tasks.get(i).join());
+        }
+        return files.size() > limit ? new ArrayList<>(files.subList(0, limit)) : files;
+    }
+
+    private class DirectoryTask extends RecursiveTask<List<File>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final int depth;
+        // receives the files of the directory instead of returning them, if set
+        private final Consumer<List<File>> fileConsumer;
+
+        private DirectoryTask(Path directory, int depth, Consumer<List<File>> fileConsumer) {
+            this.directory = directory;
+            this.depth = depth;
+            this.fileConsumer = fileConsumer;
+        }
+
+        @Override
+        protected List<File> compute() {
+            directoryVisitor.accept(directory);
+
+            final List<File> files = new ArrayList<>();
+            final List<DirectoryTask> subdirectories = new ArrayList<>();
+            try {
+                Files.walkFileTree(directory, Collections.emptySet(), 1, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                        if (isExcluded(file)) return FileVisitResult.CONTINUE;
+                        if (attributes.isDirectory()) {
+                            if (depth + 1 < maxDepth) subdirectories.add(new DirectoryTask(file, depth + 1, fileConsumer));
+                        } else if (attributes.isSymbolicLink() && Files.isDirectory(file)) {
+                            return FileVisitResult.CONTINUE;
+                        } else if (!attributes.isOther() && fileFilter.test(file.getFileName().toString())) {
+                            files.add(file.toFile());
+                            // the files of the subdirectories come after these, so they are not needed anymore
+                            if (fileConsumer == null && files.size() >= limit) return FileVisitResult.TERMINATE;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        // e.g. a file that has been deleted while reading the directory
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                LOG.warn("Unable to list files in [{}]: {}", directory, e.getMessage());
+            }
+
+            if (fileConsumer != null) {
+                if (!files.isEmpty()) fileConsumer.accept(files);
+                if (!subdirectories.isEmpty()) joinAll(subdirectories, Integer.MAX_VALUE);
+                return Collections.emptyList();
+            }
+            if (!subdirectories.isEmpty() && files.size() < limit) {
+                files.addAll(joinAll(subdirectories, limit - files.size()));
+            }
+            return files;
+        }
+    }
+}
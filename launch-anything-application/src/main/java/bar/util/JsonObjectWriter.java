@@ -0,0 +1,89 @@
+package bar.util;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes a JSON object with the same characters as {@link JSONObject#toString()}, but converts the elements of large
+ * arrays to JSON one at a time while they are written, instead of building the whole tree first.<br>
+ * A {@link JSONObject} keeps its values in a {@link HashMap}, so the fields are kept in a {@link HashMap} as well: if
+ * the same keys are put in the same order as into the {@link JSONObject}, they are written in the same order.
+ */
+public class JsonObjectWriter {
+
+    private final Map<String, Value> fields = new HashMap<>();
+
+    /**
+     * @param value A {@link JSONObject}, {@link JSONArray}, {@link JsonObjectWriter}, string, number or boolean. Like
+     *              {@link JSONObject#put(String, Object)}, a <code>null</code> value removes the field.
+     */
+    public JsonObjectWriter put(String key, Object value) {
+        if (value == null) {
+            fields.remove(key);
+        } else if (value instanceof JSONObject) {
+            fields.put(key, writer -> ((JSONObject) value).write(writer));
+        } else if (value instanceof JSONArray) {
+            fields.put(key, writer -> ((JSONArray) value).write(writer));
+        } else if (value instanceof JsonObjectWriter) {
+            fields.put(key, ((JsonObjectWriter) value)::write);
+        } else {
+            final String json = JSONObject.valueToString(value);
+            fields.put(key, writer -> writer.write(json));
+        }
+        return this;
+    }
+
+    /**
+     * Adds an array whose elements are converted to JSON when they are written.
+     *
+     * @param toJSON Converts an element to a value that is accepted by {@link #put(String, Object)}.
+     */
+    public <T> JsonObjectWriter putArray(String key, Iterable<T> elements, Function<T, Object> toJSON) {
+        fields.put(key, writer -> {
+            writer.write('[');
+            boolean first = true;
+            for (T element : elements) {
+                if (!first) writer.write(',');
+                first = false;
+                writeValue(writer, toJSON.apply(element));
+            }
+            writer.write(']');
+        });
+        return this;
+    }
+
+    public void write(Writer writer) throws IOException {
+        writer.write('{');
+        boolean first = true;
+        for (Map.Entry<String, Value> field : fields.entrySet()) {
+            if (!first) writer.write(',');
+            first = false;
+            writer.write(JSONObject.quote(field.getKey()));
+            writer.write(':');
+            field.getValue().write(writer);
+        }
+        writer.write('}');
+    }
+
+    private static void writeValue(Writer writer, Object value) throws IOException {
+        if (value instanceof JSONObject) {
+            ((JSONObject) value).write(writer);
+        } else if (value instanceof JSONArray) {
+            ((JSONArray) value).write(writer);
+        } else if (value instanceof JsonObjectWriter) {
+            ((JsonObjectWriter) value).write(writer);
+        } else {
+            writer.write(JSONObject.valueToString(value));
+        }
+    }
+
+    private interface Value {
+        void write(Writer writer) throws IOException;
+    }
+}
@@ -25,7 +25,6 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import static java.net.URLDecoder.decode;
@@ -243,50 +242,37 @@ public abstract class Util {
         return result.toString();
     }
 
-    public static List<File> recursivelyListFiles(File directory) {
-        AtomicInteger amount = new AtomicInteger();
-        return recursivelyListFiles(directory, amount);
-    }
-
-    private static List<File> recursivelyListFiles(File directory, AtomicInteger amount) {
-        if (directory.exists() && directory.isDirectory()) {
-            List<File> files = new ArrayList<>();
-            for (File file : directory.listFiles()) {
-                if (file.isDirectory()) {
-                    files.addAll(recursivelyListFiles(file, amount));
-                } else {
-                    files.add(file);
-                    if (amount.incrementAndGet() > (settings != null ? settings.getInt(Settings.Setting.TILE_GENERATOR_FILE_LIMIT) : 1000)) {
-                        return files;
-                    }
-                }
+    /**
+     * @return A walker that lists the files that end with one of the extensions, with the depth, exclusions and limit
+     * of the tile generator settings.
+     */
+    public static FileWalker createFileWalker(String... extension) {
+        final FileWalker walker = new FileWalker()
+                .setLimit(getIntSetting(Settings.Setting.TILE_GENERATOR_FILE_LIMIT))
+                .setMaxDepth(getIntSetting(Settings.Setting.TILE_GENERATOR_MAX_DEPTH));
+        final String excludes = settings != null ? settings.getStringOrNull(Settings.Setting.TILE_GENERATOR_EXCLUDES) : (String) Settings.Setting.TILE_GENERATOR_EXCLUDES.defaultValue;
+        if (excludes != null) {
+            for (String exclude : excludes.trim().split(" +")) {
+                if (!exclude.isEmpty()) walker.addExclude(exclude);
             }
-            return files;
         }
-        return Collections.emptyList();
+        if (extension != null && extension.length > 0) {
+            walker.setFileFilter(name -> Arrays.stream(extension).anyMatch(name::endsWith));
+        }
+        return walker;
     }
 
-    public static List<File> recursivelyListFiles(File directory, String... extension) {
-        AtomicInteger amount = new AtomicInteger();
-        return recursivelyListFiles(directory, amount, extension);
+    /**
+     * @return The settings used by {@link #createFileWalker(String...)}, to detect whether files that have been listed
+     * before would be listed the same way now.
+     */
+    public static String describeFileWalkerSettings() {
+        final String excludes = settings != null ? settings.getStringOrNull(Settings.Setting.TILE_GENERATOR_EXCLUDES) : (String) Settings.Setting.TILE_GENERATOR_EXCLUDES.defaultValue;
+        return getIntSetting(Settings.Setting.TILE_GENERATOR_FILE_LIMIT) + " " + getIntSetting(Settings.Setting.TILE_GENERATOR_MAX_DEPTH) + " " + excludes;
     }
 
-    private static List<File> recursivelyListFiles(File directory, AtomicInteger amount, String... extension) {
-        if (directory.exists() && directory.isDirectory()) {
-            List<File> files = new ArrayList<>();
-            for (File file : directory.listFiles()) {
-                if (file.isDirectory()) {
-                    files.addAll(recursivelyListFiles(file, extension));
-                } else if (extension == null || extension.length == 0 || Arrays.stream(extension).anyMatch(file.getName()::endsWith)) {
-                    files.add(file);
-                    if (amount.incrementAndGet() > (settings != null ? settings.getInt(Settings.Setting.TILE_GENERATOR_FILE_LIMIT) : 1000)) {
-                        return files;
-                    }
-                }
-            }
-            return files;
-        }
-        return Collections.emptyList();
+    private static int getIntSetting(Settings.Setting setting) {
+        return settings != null ? settings.getInt(setting) : (int) setting.defaultValue;
     }
 
     public static String capitalizeWords(String text) {
@@ -0,0 +1,136 @@
+package bar.tile;
+
+import bar.tile.search.MatchTier;
+import bar.tile.search.SearchQuery;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedTileStoreTest {
+
+    private static final String[] SEGMENTS = {
+            "Documents", "docs", "Report", "report.pdf", "notes.txt", "a.b.c", "img_2020.PNG", "Ünïcode", "src",
+            "main", "Java", "x", "read me.md", "Report (old).docx", "Straße.straße"
+    };
+    private static final String[] WORDS = {
+            "doc", "docs", "rep", "report", "pdf", "(pdf)", "report (p", "(png", ".txt", "a.b", "ünï", "src/main",
+            "java", "x", "me.md", "(old)", "work", "projects", "file", "zzz", "strasse"
+    };
+
+    private final File root = new File(System.getProperty("java.io.tmpdir"), "generated-tile-store-test");
+
+    @Test
+    void candidatesContainAllMatchingFiles() {
+        final Random random = new Random(42);
+        final GeneratedTileStore store = createStore(random, 2000);
+
+        for (int i = 0; i < 300; i++) {
+            final String search = createSearch(random, store);
+            assertCandidatesContainMatches(store, search, store.size());
+        }
+    }
+
+    @Test
+    void incrementalCandidatesContainAllMatchingFiles() {
+        final Random random = new Random(7);
+        final GeneratedTileStore store = createStore(random, 2000);
+
+        for (int i = 0; i < 100; i++) {
+            final String search = createSearch(random, store);
+            // the user types the search one character at a time, with small limits in between
+            for (int length = 1; length <= search.length(); length++) {
+                final String typed = search.substring(0, length);
+                final int limit = random.nextInt(3) == 0 ? store.size() : 1 + random.nextInt(10);
+                assertCandidatesContainMatches(store, typed, limit);
+            }
+            assertCandidatesContainMatches(store, search, store.size());
+        }
+    }
+
+    @Test
+    void writtenStoreCanBeReadAgain() throws IOException {
+        final GeneratedTileStore store = createStore(new Random(3), 500);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            store.writeTo(out);
+        }
+        final GeneratedTileStore read = new GeneratedTileStore(ByteBuffer.wrap(bytes.toByteArray()));
+
+        assertEquals(store.size(), read.size());
+        for (int i = 0; i < store.size(); i++) {
+            final Tile expected = store.get(i);
+            final Tile actual = read.get(i);
+            assertEquals(store.getId(i), read.getId(i));
+            assertEquals(store.getPath(i), read.getPath(i));
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getLabel(), actual.getLabel());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getKeywords(), actual.getKeywords());
+            assertEquals(store.indexOf(new File(store.getPath(i))), read.indexOf(new File(read.getPath(i))));
+            assertEquals(expected.getId(), read.findById(expected.getId()).getId());
+        }
+        for (String word : WORDS) {
+            assertEquals(store.findCandidates(SearchQuery.of(word), store.size()), read.findCandidates(SearchQuery.of(word), read.size()));
+        }
+    }
+
+    private static void assertCandidatesContainMatches(GeneratedTileStore store, String search, int limit) {
+        final SearchQuery query = SearchQuery.of(search);
+        // a search without words, e.g. a single space, is not passed to the store
+        if (query.getLowercaseWords().length == 0) return;
+        final List<Integer> candidates = store.findCandidates(query, limit);
+        final Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < store.size(); i++) {
+            final int file = i;
+            final MatchTier tier = store.get(file).getMatchTier(query);
+            assertEquals(tier, store.getMatchTier(file, query), () -> "tier of [" + store.getPath(file) + "] for [" + search + "]");
+            // files that only match the smart search are not searched by the store
+            if (tier != null && tier != MatchTier.SMART_SEARCH) expected.add(file);
+        }
+
+        assertTrue(candidates.size() <= limit, () -> "too many candidates for [" + search + "]");
+        assertTrue(candidates.size() >= Math.min(limit, expected.size()), () -> "too few candidates for [" + search + "]");
+        assertEquals(candidates.size(), new HashSet<>(candidates).size(), () -> "duplicate candidates for [" + search + "]");
+        if (limit >= store.size()) {
+            for (int file : expected) {
+                assertTrue(candidates.contains(file), () -> "[" + store.getPath(file) + "] is missing for [" + search + "]");
+            }
+        }
+    }
+
+    private GeneratedTileStore createStore(Random random, int files) {
+        final GeneratedTileStore.Builder builder = new GeneratedTileStore.Builder();
+        for (int i = 0; i < files; i++) {
+            File file = root;
+            final int depth = 1 + random.nextInt(4);
+            for (int level = 0; level < depth; level++) {
+                file = new File(file, SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            }
+            if (random.nextBoolean()) builder.addFile(file, "file", "");
+            else builder.addFile(file, "work", "projects Work");
+        }
+        return builder.build();
+    }
+
+    private static String createSearch(Random random, GeneratedTileStore store) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return WORDS[random.nextInt(WORDS.length)];
+            case 1:
+                return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            default:
+                // a part of the label of a file
+                final String label = store.get(random.nextInt(store.size())).getLabel();
+                final int start = random.nextInt(label.length());
+                return label.substring(start, start + 1 + random.nextInt(label.length() - start));
+        }
+    }
+}
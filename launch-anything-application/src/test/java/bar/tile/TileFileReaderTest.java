@@ -0,0 +1,103 @@
+package bar.tile;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileFileReaderTest {
+
+    private static final String TILE = "{\"id\":\"a\",\"label\":\"Google\",\"category\":\"url\",\"keywords\":\"search\",\"lastActivated\":3," +
+                                       "\"actions\":[{\"type\":\"url\",\"url\":\"https://www.google.com\"}]}";
+    private static final String OTHER_TILE = "{\"id\":\"b\",\"label\":\"Notes\",\"category\":\"file\",\"isActive\":false}";
+    private static final String TILE_GENERATOR = "{\"id\":\"g\",\"generators\":[{\"type\":\"file\",\"param1\":\"C:/x\"}]}";
+    private static final String CATEGORY = "{\"label\":\"url\",\"color\":[255,0,0]}";
+
+    private static final String[] TILE_FILES = {
+            "{}",
+            "{\"tiles\":[" + TILE + "," + OTHER_TILE + "],\"tile-generators\":[" + TILE_GENERATOR + "],\"categories\":[" + CATEGORY + "]," +
+            "\"cloudTiles\":{\"synchronizedCloudTiles\":[" + OTHER_TILE + "],\"username\":\"user\"},\"version\":2}",
+            // the sections that are read element by element, with values that are not arrays or objects
+            "{\"tiles\":5,\"tile-generators\":\"x\",\"categories\":null,\"cloudTiles\":[1]}",
+            "{\"cloudTiles\":{\"synchronizedCloudTiles\":null,\"unsynchronizedCloudTiles\":{}}}",
+            // elements that are not objects or not valid
+            "{\"tiles\":[1,null,[],\"x\"," + TILE + ",{\"id\":\"e\"},{\"id\":\"f\",\"label\":\"\"}]}",
+            "{\"tiles\":[,," + TILE + ",]}",
+            "{\"tiles\":[" + TILE + ",],\"categories\":[{\"label\":\"x\"}]}",
+            // the lenient syntax of org.json
+            "{tiles:[" + TILE + "];version:2,}",
+            "{'tiles':['x'],'other':'y'}",
+            " \n{\"tiles\" : [ " + TILE + " ] } ",
+            // duplicate keys
+            "{\"version\":1,\"version\":2}",
+            "{\"version\":null,\"version\":2}",
+            "{\"version\":2,\"version\":null}",
+            "{\"tiles\":[],\"tiles\":[]}",
+            "{\"tiles\":null,\"tiles\":[" + TILE + "]}",
+            "{\"tiles\":[" + TILE + "],\"tiles\":null}",
+            "{\"tiles\":5,\"tiles\":[]}",
+            "{\"cloudTiles\":{},\"cloudTiles\":{}}",
+            "{\"cloudTiles\":{\"synchronizedCloudTiles\":[],\"synchronizedCloudTiles\":[]}}",
+            "{\"cloudTiles\":{\"username\":\"a\",\"username\":\"b\"}}",
+            "{\"tiles\":[{\"id\":\"a\",\"id\":\"b\"}]}",
+            // invalid files
+            "",
+            "[]",
+            "{",
+            "{\"tiles\":[",
+            "{\"tiles\":[" + TILE,
+            "{\"tiles\":[" + TILE + "}",
+            "{\"tiles\" [" + TILE + "]}",
+            "{\"tiles\":[" + TILE + "] \"version\":2}",
+            "{\"cloudTiles\":{\"synchronizedCloudTiles\":[}}",
+            "{\"version\":}",
+    };
+
+    @Test
+    void contentEqualsTheContentOfTheParsedJson() {
+        for (String json : TILE_FILES) {
+            final TileFileContent expected;
+            try {
+                expected = new TileFileContent(new JSONObject(json));
+            } catch (JSONException e) {
+                final JSONException actual = assertThrows(JSONException.class, () -> TileFileReader.read(new StringReader(json)), () -> "no exception for [" + json + "]");
+                assertEquals(e.getMessage(), actual.getMessage(), () -> "exception for [" + json + "]");
+                continue;
+            }
+            final TileFileContent actual = TileFileReader.read(new StringReader(json));
+
+            assertJsonEquals(json, expected.getTiles(), actual.getTiles(), Tile::toJSON);
+            assertJsonEquals(json, expected.getTileGenerators(), actual.getTileGenerators(), TileGenerator::toJSON);
+            assertJsonEquals(json, expected.getCategories(), actual.getCategories(), TileCategory::toJSON);
+            for (String key : new String[]{"synchronizedCloudTiles", "unsynchronizedCloudTiles"}) {
+                assertJsonEquals(json, expected.getCloudTiles(key), actual.getCloudTiles(key), Tile::toJSON);
+            }
+            // the sections that have been read element by element are not part of the other sections
+            final JSONObject expectedOtherSections = expected.getOtherSections();
+            final JSONObject actualOtherSections = actual.getOtherSections();
+            for (String key : new String[]{"tiles", "tile-generators", "categories"}) {
+                expectedOtherSections.remove(key);
+                actualOtherSections.remove(key);
+            }
+            final JSONObject expectedCloudTiles = expectedOtherSections.optJSONObject("cloudTiles");
+            if (expectedCloudTiles != null) {
+                actual.getCloudTileSections().keySet().forEach(expectedCloudTiles::remove);
+            }
+            assertTrue(expectedOtherSections.similar(actualOtherSections), () -> "other sections of [" + json + "]: " + actualOtherSections);
+        }
+    }
+
+    private static <T> void assertJsonEquals(String json, List<T> expected, List<T> actual, Function<T, JSONObject> toJSON) {
+        final JSONArray expectedJson = new JSONArray();
+        expected.forEach(element -> expectedJson.put(toJSON.apply(element)));
+        final JSONArray actualJson = new JSONArray();
+        actual.forEach(element -> actualJson.put(toJSON.apply(element)));
+        assertTrue(expectedJson.similar(actualJson), () -> "[" + json + "]: " + expectedJson + " != " + actualJson);
+    }
+}
@@ -0,0 +1,66 @@
+package bar.tile;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileManagerTest {
+
+    private static final String TILES_JSON = "{" +
+            "\"tiles\":[" +
+            "{\"id\":\"a\",\"label\":\"Google\",\"category\":\"url\",\"keywords\":\"search engine\",\"lastActivated\":1690000000000," +
+            "\"actions\":[{\"type\":\"url\",\"url\":\"https://www.google.com/search?q=a&b=</script>\"}]}," +
+            "{\"id\":\"b\",\"label\":\"Straße \\\"quoted\\\" \\\\ \\t \\u0001 \\u2028 😀\",\"category\":\"copy\",\"isActive\":false," +
+            "\"actions\":[{\"type\":\"copy\",\"text\":\"line\\nbreak\"},{\"type\":\"file\",\"path\":\"C:\\\\Users\\\\x.txt\"}]}," +
+            "{\"id\":\"c\",\"label\":\"Not exported\",\"exportable\":false,\"actions\":[]}]," +
+            "\"tile-generators\":[{\"id\":\"g\",\"category\":\"file\",\"keywords\":\"docs\"," +
+            "\"generators\":[{\"id\":\"gg\",\"type\":\"file\",\"param1\":\"does/not/exist\",\"param2\":\".txt .md\"}]}]," +
+            "\"categories\":[{\"label\":\"url\",\"color\":[239,93,62]},{\"label\":\"copy\",\"color\":[252,186,3]}]," +
+            "\"cloudTiles\":{" +
+            "\"synchronizedTiles\":[{\"id\":\"s\",\"label\":\"Synchronized\",\"category\":\"url\",\"actions\":[]}]," +
+            "\"unsynchronizedTiles\":[{\"id\":\"u\",\"label\":\"Unsynchronized\",\"category\":\"url\",\"actions\":[]}]," +
+            "\"deletedCloudTiles\":[{\"id\":\"d\",\"label\":\"Deleted\",\"category\":\"url\",\"actions\":[]}]}," +
+            "\"disabled-runtime-tiles\":[\"Go Time\",\"Go Time\",\"Calculator\"]," +
+            "\"query-selections\":[{\"query\":\"goo\",\"tiles\":[\"a\"]}]," +
+            "\"version\":1" +
+            "}";
+
+    @Test
+    void savedTileFileEqualsTheJson() throws IOException {
+        final File directory = Files.createTempDirectory("tile-manager-test").toFile();
+        final File tileFile = new File(directory, "tiles.json");
+        final TileManager tileManager = new TileManager(tileFile, new PluginTileLoader(new File(directory, "plugins")));
+        tileManager.loadTilesFromJson(new JSONObject(TILES_JSON));
+        final Tile cloudTile = new Tile("Cloud");
+        cloudTile.setId("n");
+        tileManager.addCloudTile(cloudTile);
+
+        tileManager.save();
+        tileManager.flush();
+
+        final String expected = tileManager.toJSON().toString();
+        final String actual = new String(Files.readAllBytes(tileFile.toPath()), StandardCharsets.UTF_8);
+        // the activation history is stored with the time it has been written at
+        assertEquals(withoutTime(expected), withoutTime(actual));
+        // all sections have been written
+        final JSONObject written = new JSONObject(actual);
+        assertEquals(2, written.getJSONArray("tiles").length());
+        assertEquals(1, written.getJSONArray("tile-generators").length());
+        assertEquals(2, written.getJSONArray("categories").length());
+        assertEquals(2, written.getJSONArray("disabled-runtime-tiles").length());
+        final JSONObject cloudTiles = written.getJSONObject("cloudTiles");
+        assertEquals(1, cloudTiles.getJSONArray("synchronizedCloudTiles").length());
+        assertEquals(2, cloudTiles.getJSONArray("unsynchronizedCloudTiles").length());
+        assertEquals(1, cloudTiles.getJSONArray("deletedCloudTiles").length());
+    }
+
+    private static String withoutTime(String json) {
+        return json.replaceAll("\"time\":\\d+", "\"time\":0");
+    }
+}
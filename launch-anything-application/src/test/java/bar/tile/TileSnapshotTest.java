@@ -0,0 +1,133 @@
+package bar.tile;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileSnapshotTest {
+
+    // the offsets of the header fields of the snapshot
+    private static final int VERSION_OFFSET = 4;
+    private static final int TILE_FILE_CHECKSUM_OFFSET = 8;
+    private static final int DATA_CHECKSUM_OFFSET = 16;
+    private static final int DATA_OFFSET = 28;
+
+    private static final String TILE_FILE = "{" +
+            "\"tiles\":[" +
+            "{\"id\":\"a\",\"label\":\"Google\",\"category\":\"url\",\"keywords\":\"search\",\"isActive\":true,\"lastActivated\":12," +
+            "\"actions\":[{\"type\":\"url\",\"url\":\"https://www.google.com\"}]}," +
+            "{\"id\":\"b\",\"label\":\"Straße\",\"category\":\"file\",\"keywords\":\"\",\"isActive\":false,\"lastActivated\":4102444800000," +
+            "\"actions\":[{\"type\":\"copy\",\"text\":\"ü \\\" \\\\ 😀\"},{\"type\":\"file\",\"path\":\"C:\\\\x.txt\"}]}]," +
+            "\"categories\":[{\"label\":\"url\",\"color\":[255,0,0]}]," +
+            "\"cloudTiles\":{\"synchronizedCloudTiles\":[{\"id\":\"c\",\"label\":\"Cloud\",\"category\":\"url\",\"keywords\":\"\"," +
+            "\"isActive\":true,\"lastActivated\":0,\"actions\":[]}],\"username\":\"user\"}," +
+            "\"activation-history\":{\"a\":[12]}," +
+            "\"version\":2" +
+            "}";
+
+    @Test
+    void writtenSnapshotCanBeReadAgain() throws IOException {
+        final File tileFile = createTileFile(TILE_FILE);
+        final TileFileContent content = createContent(TILE_FILE);
+        final TileSnapshot snapshot = new TileSnapshot(tileFile);
+        snapshot.write(content);
+
+        final TileFileContent read = snapshot.read();
+        assertNotNull(read);
+        assertTilesEqual(content.getTiles(), read.getTiles());
+        assertEquals(content.getCloudTileSections().keySet(), read.getCloudTileSections().keySet());
+        assertTilesEqual(content.getCloudTiles("synchronizedCloudTiles"), read.getCloudTiles("synchronizedCloudTiles"));
+        assertTrue(content.getOtherSections().similar(read.getOtherSections()), () -> read.getOtherSections().toString());
+    }
+
+    @Test
+    void snapshotIsIgnoredAfterTheTileFileChanged() throws IOException {
+        final File tileFile = createTileFile(TILE_FILE);
+        final TileSnapshot snapshot = new TileSnapshot(tileFile);
+        snapshot.write(createContent(TILE_FILE));
+
+        // the same length and modification time, only the content differs
+        final long lastModified = tileFile.lastModified();
+        Files.write(tileFile.toPath(), TILE_FILE.replace("Google", "Goggle").getBytes(StandardCharsets.UTF_8));
+        assertTrue(tileFile.setLastModified(lastModified));
+        assertNull(snapshot.read());
+
+        Files.write(tileFile.toPath(), TILE_FILE.getBytes(StandardCharsets.UTF_8));
+        assertNotNull(snapshot.read());
+    }
+
+    @Test
+    void corruptedSnapshotIsIgnored() throws IOException {
+        for (int offset : new int[]{TILE_FILE_CHECKSUM_OFFSET, DATA_CHECKSUM_OFFSET, DATA_OFFSET, DATA_OFFSET + 40}) {
+            final File tileFile = createTileFile(TILE_FILE);
+            final TileSnapshot snapshot = new TileSnapshot(tileFile);
+            snapshot.write(createContent(TILE_FILE));
+            assertNotNull(snapshot.read());
+
+            try (RandomAccessFile file = new RandomAccessFile(getSnapshotFile(tileFile), "rw")) {
+                file.seek(offset);
+                final int value = file.read();
+                file.seek(offset);
+                file.write(value ^ 0x10);
+            }
+            assertNull(snapshot.read(), () -> "corrupted byte at " + offset);
+        }
+    }
+
+    @Test
+    void snapshotOfAnotherVersionIsIgnored() throws IOException {
+        final File tileFile = createTileFile(TILE_FILE);
+        final TileSnapshot snapshot = new TileSnapshot(tileFile);
+        snapshot.write(createContent(TILE_FILE));
+
+        final int version;
+        try (RandomAccessFile file = new RandomAccessFile(getSnapshotFile(tileFile), "rw")) {
+            file.seek(VERSION_OFFSET);
+            version = file.readInt();
+            file.seek(VERSION_OFFSET);
+            file.writeInt(version - 1);
+        }
+        assertNull(snapshot.read());
+
+        try (RandomAccessFile file = new RandomAccessFile(getSnapshotFile(tileFile), "rw")) {
+            file.seek(VERSION_OFFSET);
+            file.writeInt(version);
+        }
+        assertNotNull(snapshot.read());
+    }
+
+    private static TileFileContent createContent(String json) {
+        final TileFileContent content = new TileFileContent(new JSONObject(json));
+        content.setTiles(content.getTiles());
+        content.setCloudTiles("synchronizedCloudTiles", content.getCloudTiles("synchronizedCloudTiles"));
+        content.setCategories(content.getCategories());
+        return content;
+    }
+
+    private static void assertTilesEqual(List<Tile> expected, List<Tile> actual) {
+        final JSONArray expectedJson = new JSONArray();
+        expected.forEach(tile -> expectedJson.put(tile.toJSON()));
+        final JSONArray actualJson = new JSONArray();
+        actual.forEach(tile -> actualJson.put(tile.toJSON()));
+        assertTrue(expectedJson.similar(actualJson), () -> expectedJson + " != " + actualJson);
+    }
+
+    private static File createTileFile(String json) throws IOException {
+        final File tileFile = new File(Files.createTempDirectory("tile-snapshot-test").toFile(), "tiles.json");
+        Files.write(tileFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        return tileFile;
+    }
+
+    private static File getSnapshotFile(File tileFile) {
+        return new File(tileFile.getParentFile(), "tiles.bin");
+    }
+}
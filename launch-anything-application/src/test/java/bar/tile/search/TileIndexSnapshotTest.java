@@ -0,0 +1,128 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileIndexSnapshotTest {
+
+    // a small alphabet, so that many words share prefixes and are within a few edits of each other
+    private static final String ALPHABET = "abcd";
+
+    @Test
+    void fuzzyMatchesEqualBruteForce() {
+        final Random random = new Random(11);
+        for (int set = 0; set < 30; set++) {
+            final List<String> words = new ArrayList<>();
+            for (int i = 0, count = 50 + random.nextInt(300); i < count; i++) {
+                words.add(randomWord(random, 1 + random.nextInt(12)));
+            }
+            final List<Tile> tiles = new ArrayList<>();
+            for (String word : words) tiles.add(new Tile(word));
+            final TileIndexSnapshot snapshot = new TileIndexSnapshot(new TileListDocuments(tiles), 0);
+
+            for (int search = 0; search < 100; search++) {
+                final String token = randomToken(random, words);
+                final List<Tile> expected = new ArrayList<>();
+                for (Tile tile : tiles) {
+                    if (matchesBruteForce(tile.getLabel(), token)) expected.add(tile);
+                }
+                if (token.length() < 4) expected.clear();
+                assertEquals(expected, findFuzzyMatches(snapshot, token), () -> "fuzzy matches of [" + token + "] in " + words);
+            }
+        }
+    }
+
+    @Test
+    void transpositionsCountAsOneEdit() {
+        final List<Tile> tiles = Arrays.asList(new Tile("abcd"), new Tile("bacdxx"), new Tile("abdcefgh"), new Tile("badcefgh"), new Tile("cdab"));
+        final TileIndexSnapshot snapshot = new TileIndexSnapshot(new TileListDocuments(tiles), 0);
+
+        assertEquals(Arrays.asList(tiles.get(0), tiles.get(1), tiles.get(3)), findFuzzyMatches(snapshot, "bacd"));
+        assertEquals(Collections.singletonList(tiles.get(4)), findFuzzyMatches(snapshot, "dcab"));
+        // two transpositions are allowed in long tokens
+        assertEquals(Arrays.asList(tiles.get(2), tiles.get(3)), findFuzzyMatches(snapshot, "abcdefgh"));
+        // the prefix "bacdx" is one transposition away from the token
+        assertEquals(Arrays.asList(tiles.get(0), tiles.get(1)), findFuzzyMatches(snapshot, "abcdx"));
+    }
+
+    private static List<Tile> findFuzzyMatches(TileIndexSnapshot snapshot, String search) {
+        final IntList documents = snapshot.findFuzzyMatches(search);
+        final List<Tile> tiles = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) tiles.add(snapshot.getDocuments().get(documents.get(i)));
+        return tiles;
+    }
+
+    private static boolean matchesBruteForce(String word, String token) {
+        if (word.contains(token)) return true;
+        if (token.length() < 4) return false;
+        final int maxDistance = token.length() >= 8 ? 2 : 1;
+        for (int length = 0; length <= word.length(); length++) {
+            if (osaDistance(word.substring(0, length), token) <= maxDistance) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The optimal string alignment distance: insertions, deletions, substitutions and transpositions of adjacent
+     * characters, where no substring is edited more than once.
+     */
+    private static int osaDistance(String a, String b) {
+        final int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                final int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String randomWord(Random random, int length) {
+        final StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return word.toString();
+    }
+
+    /**
+     * @return A prefix of one of the words with up to two random edits, or a random token.
+     */
+    private static String randomToken(Random random, List<String> words) {
+        if (random.nextInt(5) == 0) return randomWord(random, 2 + random.nextInt(10));
+
+        final String word = words.get(random.nextInt(words.size()));
+        final StringBuilder token = new StringBuilder(word.substring(0, 1 + random.nextInt(word.length())));
+        for (int edits = random.nextInt(3); edits > 0 && token.length() > 1; edits--) {
+            final int position = random.nextInt(token.length());
+            final char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    token.insert(position, c);
+                    break;
+                case 1:
+                    token.deleteCharAt(position);
+                    break;
+                case 2:
+                    token.setCharAt(position, c);
+                    break;
+                default:
+                    if (position + 1 < token.length()) {
+                        final char next = token.charAt(position + 1);
+                        token.setCharAt(position + 1, token.charAt(position));
+                        token.setCharAt(position, next);
+                    }
+            }
+        }
+        // long enough to allow typos in most cases
+        while (token.length() < 3) token.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return token.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package bar.tile.search;
+
+import bar.tile.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTileListTest {
+
+    @Test
+    void orderIsKeptWhileTheHistoryChanges() {
+        final Random random = new Random(5);
+        final FrecencyStore frecencyStore = new FrecencyStore();
+        final List<Tile> tiles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final Tile tile = new Tile("tile " + i);
+            tile.setId("id-" + i);
+            tiles.add(tile);
+            for (int activation = random.nextInt(4); activation > 0; activation--) {
+                frecencyStore.recordActivation(tile, random.nextInt(1000000));
+            }
+        }
+
+        final List<ScoredTile> matches = toMatches(tiles);
+        final List<Tile> expected = new ArrayList<>(tiles);
+        final Map<Tile, FrecencyStore.Rank> ranks = new HashMap<>();
+        for (ScoredTile match : matches) ranks.put(match.getTile(), frecencyStore.getCurrentRank(match));
+        expected.sort(Comparator.comparing(ranks::get));
+
+        final TopKTileList<FrecencyStore.Rank> list = new TopKTileList<>(matches, frecencyStore::getCurrentRank, 5);
+        assertEquals(expected.get(0), list.get(0));
+
+        // the tiles that rank last are used a lot before the user scrolls through the results
+        for (int i = expected.size() - 1; i >= 100; i--) {
+            final Tile tile = expected.get(i);
+            tile.setLastActivated(2000000);
+            for (int activation = 0; activation < 10; activation++) {
+                frecencyStore.recordActivation(tile, 2000000);
+            }
+        }
+
+        final List<Tile> actual = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) actual.add(list.get(i));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void equalTilesKeepTheirOrder() {
+        final List<Tile> tiles = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final Tile tile = new Tile("tile " + i);
+            tile.setId("id-" + i);
+            tile.setLastActivated(i % 3);
+            tiles.add(tile);
+        }
+
+        final List<Tile> expected = new ArrayList<>(tiles);
+        expected.sort(Comparator.comparing(Tile::getLastActivated).reversed());
+        for (int initialLimit : new int[]{1, 7, 50}) {
+            final TopKTileList<FrecencyStore.Rank> list = new TopKTileList<>(toMatches(tiles), new FrecencyStore()::getCurrentRank, initialLimit);
+            assertEquals(expected, new ArrayList<>(list));
+        }
+    }
+
+    private static List<ScoredTile> toMatches(List<Tile> tiles) {
+        final TileDocuments documents = new TileListDocuments(tiles);
+        final List<ScoredTile> matches = new ArrayList<>();
+        for (int i = 0; i < tiles.size(); i++) matches.add(new ScoredTile(documents, i, MatchTier.WORD_BOUNDARY));
+        return matches;
+    }
+}
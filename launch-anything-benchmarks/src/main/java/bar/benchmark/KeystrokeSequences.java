@@ -0,0 +1,59 @@
+package bar.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inputs as they are evaluated while the user is typing: every search is entered one character at a time, and the
+ * launcher evaluates every input with more than one character.
+ */
+public class KeystrokeSequences {
+
+    /**
+     * Searches a user would enter, covering the different kinds of matches: plain words, several words, the smart
+     * search over word beginnings (like <code>vsc</code> for <code>Visual Studio Code</code>), path segments from the
+     * keywords and a search that does not match any tile.
+     */
+    public final static String[] SEARCHES = {
+            "intellij",
+            "project report",
+            "vsc",
+            "fiz",
+            "documents thesis pdf",
+            "chrome",
+            "university notes",
+            "xyzzy"
+    };
+
+    /**
+     * Searches that are only matched by the smart search, not by the substring search.
+     */
+    public final static String[] SMART_SEARCHES = {
+            "vsc", "fiz", "gh", "lanany", "kubdo", "spomu"
+    };
+
+    /**
+     * Searches with typos in them, which are only found by the fuzzy search.
+     */
+    public final static String[] FUZZY_SEARCHES = {
+            "inteliij", "porject reoprt", "screnshot", "kubernets", "presentaton", "dcouments thesis"
+    };
+
+    private KeystrokeSequences() {
+    }
+
+    /**
+     * @param searches The searches to type.
+     * @return Every input that is evaluated while typing the searches, in the order they are evaluated in.
+     */
+    public static List<String> typed(String... searches) {
+        final List<String> inputs = new ArrayList<>();
+        for (String search : searches) {
+            for (int length = 2; length <= search.length(); length++) {
+                inputs.add(search.substring(0, length));
+            }
+        }
+        return Collections.unmodifiableList(inputs);
+    }
+}
@@ -0,0 +1,40 @@
+package bar.benchmark;
+
+import bar.tile.TileManager;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading the tiles from the content of the <code>tiles.json</code> file, including the parsing of the JSON
+ * and building the search indexes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadTilesBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int tileCount;
+
+    private String tilesFileContent;
+    private TileManager tileManager;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final TileCorpus corpus = new TileCorpus(tileCount);
+        tilesFileContent = corpus.toJSON().toString();
+        tileManager = new TileCorpus(0).createTileManager();
+    }
+
+    @Benchmark
+    public TileManager loadTilesFromJson() {
+        tileManager.loadTilesFromJson(new JSONObject(tilesFileContent));
+        return tileManager;
+    }
+}
@@ -0,0 +1,73 @@
+package bar.benchmark;
+
+import bar.tile.Tile;
+import bar.tile.search.MatchTier;
+import bar.tile.search.SearchQuery;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the memory allocated by matching a single tile against a prepared search query. Run it using the main method
+ * or with <code>-prof gc</code>: the <code>gc.alloc.rate.norm</code> of both benchmarks is expected to be 0 bytes per
+ * operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchAllocationBenchmark {
+
+    private List<Tile> tiles;
+    private SearchQuery[] queries;
+    private int nextTile = 0;
+    private int nextQuery = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tiles = new TileCorpus(1000).getTiles();
+        final List<String> inputs = KeystrokeSequences.typed(KeystrokeSequences.SEARCHES);
+        queries = new SearchQuery[inputs.size()];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = SearchQuery.of(inputs.get(i));
+        }
+        // the search fields of the tiles are created on their first use, which is not part of the measurement
+        for (Tile tile : tiles) {
+            tile.matchesSearch(queries[0]);
+        }
+    }
+
+    private Tile nextTile() {
+        if (++nextTile == tiles.size()) {
+            nextTile = 0;
+            if (++nextQuery == queries.length) nextQuery = 0;
+        }
+        return tiles.get(nextTile);
+    }
+
+    @Benchmark
+    public boolean matchesSearch() {
+        return nextTile().matchesSearch(queries[nextQuery]);
+    }
+
+    @Benchmark
+    public MatchTier getMatchTier() {
+        return nextTile().getMatchTier(queries[nextQuery]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder()
+                .include(MatchAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,125 @@
+package bar.benchmark;
+
+import bar.tile.PluginTileLoader;
+import bar.tile.Tile;
+import bar.tile.TileManager;
+import bar.tile.action.TileAction;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic tiles that resemble the tiles of a real user: a few hand-made application and url tiles and many
+ * file tiles like the ones created by the file tile generators, with the path segments as keywords.<br>
+ * The tiles are generated from a fixed seed, so every benchmark run uses the same corpus.
+ */
+public class TileCorpus {
+
+    private final static String[] WORDS = {
+            "project", "report", "invoice", "notes", "meeting", "backup", "config", "settings", "draft", "final",
+            "summary", "budget", "schedule", "presentation", "thesis", "chapter", "image", "screenshot", "photo",
+            "music", "video", "archive", "export", "import", "server", "client", "database", "script", "build", "release",
+            "launch", "anything", "github", "minecraft", "steam", "discord", "chrome", "firefox", "filezilla", "intellij",
+            "visual", "studio", "code", "terminal", "python", "java", "kotlin", "docker", "kubernetes", "spotify"
+    };
+    private final static String[] DIRECTORIES = {
+            "Users", "yan", "Documents", "Desktop", "Downloads", "Pictures", "Projects", "University", "Work",
+            "Private", "Games", "Tools", "Repositories", "Backups", "Music", "Videos", "Semester", "Archive"
+    };
+    private final static String[] EXTENSIONS = {
+            "pdf", "docx", "xlsx", "pptx", "txt", "md", "png", "jpg", "java", "py", "json", "zip", "mp3", "mp4", "exe"
+    };
+    private final static String[] CATEGORIES = {
+            "file", "url", "program", "settings", "runtime", "game", "university", "work"
+    };
+
+    private final List<Tile> tiles;
+
+    public TileCorpus(int size) {
+        this(size, 42);
+    }
+
+    public TileCorpus(int size, long seed) {
+        final Random random = new Random(seed);
+        tiles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // roughly one in ten tiles is created by the user, the others are generated from files
+            tiles.add(i % 10 == 0 ? createUserTile(random) : createFileTile(random));
+        }
+    }
+
+    public List<Tile> getTiles() {
+        return tiles;
+    }
+
+    /**
+     * @return The corpus in the format of the <code>tiles.json</code> file.
+     */
+    public JSONObject toJSON() {
+        final JSONArray tilesArray = new JSONArray();
+        for (Tile tile : tiles) {
+            tilesArray.put(tile.toJSON());
+        }
+        final JSONObject tilesRoot = new JSONObject();
+        tilesRoot.put("version", 1);
+        tilesRoot.put("tiles", tilesArray);
+        tilesRoot.put("tile-generators", new JSONArray());
+        tilesRoot.put("categories", new JSONArray());
+        tilesRoot.put("disabled-runtime-tiles", new JSONArray());
+        return tilesRoot;
+    }
+
+    /**
+     * Creates a tile manager in a temporary directory that contains the tiles of this corpus.
+     */
+    public TileManager createTileManager() throws IOException {
+        final File directory = Files.createTempDirectory("launch-anything-benchmark").toFile();
+        directory.deleteOnExit();
+        final TileManager tileManager = new TileManager(new File(directory, "tiles.json"), new PluginTileLoader(new File(directory, "plugins")));
+        tileManager.loadTilesFromJson(toJSON());
+        return tileManager;
+    }
+
+    private static Tile createUserTile(Random random) {
+        // user tiles are mostly applications and websites with camel case names and a few keywords
+        final String name = capitalize(pick(random, WORDS)) + capitalize(pick(random, WORDS));
+        final Tile tile = new Tile(name, pick(random, CATEGORIES), pick(random, WORDS) + " " + pick(random, WORDS), true);
+        tile.addAction(TileAction.getInstance("url", "https://www." + name.toLowerCase() + ".com"));
+        tile.setLastActivated(random.nextInt(4) == 0 ? 0 : System.currentTimeMillis() - random.nextInt(1_000_000_000));
+        return tile;
+    }
+
+    private static Tile createFileTile(Random random) {
+        final StringBuilder path = new StringBuilder("C:");
+        final int depth = 2 + random.nextInt(5);
+        for (int i = 0; i < depth; i++) {
+            path.append('\\').append(pick(random, DIRECTORIES));
+        }
+        final String name = pick(random, WORDS) + "_" + pick(random, WORDS) + (random.nextBoolean() ? "_" + random.nextInt(100) : "");
+        final String extension = pick(random, EXTENSIONS);
+        path.append('\\').append(name).append('.').append(extension);
+
+        // same label and keywords as the tiles created by the file tile generator
+        final Tile tile = new Tile(name + " (" + extension.toUpperCase() + ")", "file", "", true);
+        tile.addAction(TileAction.getInstance("file", path.toString()));
+        for (String keyword : path.toString().replaceAll("[A-Z]:", "").replaceAll("[/\\\\.]+", " ").trim().split(" ")) {
+            tile.addKeyword(keyword);
+        }
+        tile.setLastActivated(random.nextInt(20) == 0 ? System.currentTimeMillis() - random.nextInt(1_000_000_000) : 0);
+        return tile;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,62 @@
+package bar.benchmark;
+
+import bar.tile.Tile;
+import bar.tile.TileGeneratorGenerator;
+import bar.util.FileWalker;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the file tile generator on a generated directory tree.<br>
+ * Without the settings of the launcher, the amount of files per generator is limited to 1000, so larger directory trees
+ * only measure the time until the limit is reached. {@link #walkFiles()} lists the whole tree without a limit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TileGeneratorBenchmark {
+
+    private final static String[] EXTENSIONS = {"pdf", "docx", "txt", "png", "java", "json"};
+
+    @Param({"100", "1000", "50000"})
+    public int fileCount;
+
+    private File directory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("launch-anything-generator-benchmark").toFile();
+        final Random random = new Random(42);
+        for (int i = 0; i < fileCount; i++) {
+            final File parent = new File(directory, "dir" + random.nextInt(10) + File.separator + "sub" + random.nextInt(10));
+            if (!parent.exists() && !parent.mkdirs()) throw new IOException("Unable to create " + parent);
+            final File file = new File(parent, "file_" + i + "." + EXTENSIONS[random.nextInt(EXTENSIONS.length)]);
+            if (!file.createNewFile()) throw new IOException("Unable to create " + file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public List<Tile> generateTiles() {
+        return new TileGeneratorGenerator("file", directory.getAbsolutePath()).generateTiles();
+    }
+
+    @Benchmark
+    public List<File> walkFiles() {
+        return new FileWalker().walk(directory);
+    }
+}
@@ -0,0 +1,134 @@
+package bar.benchmark;
+
+import bar.tile.Tile;
+import bar.tile.TileManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Benchmarks the search of the tiles while the user is typing. Every invocation evaluates the next input of the
+ * keystroke sequences, so consecutive invocations extend the previous input just like a typing user would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TileSearchBenchmark {
+
+    // the amount of result bars that are displayed by default
+    private final static int DISPLAYED_RESULTS = 8;
+
+    @Param({"1000", "10000", "100000"})
+    public int tileCount;
+
+    private List<Tile> tiles;
+    private TileManager tileManager;
+    private final List<String> typedInputs = KeystrokeSequences.typed(KeystrokeSequences.SEARCHES);
+    private final List<String> typedSmartInputs = KeystrokeSequences.typed(KeystrokeSequences.SMART_SEARCHES);
+    private final List<String> typedFuzzyInputs = KeystrokeSequences.typed(KeystrokeSequences.FUZZY_SEARCHES);
+    private int nextInput = 0;
+
+    private final AtomicReference<CountDownLatch> firstResult = new AtomicReference<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final TileCorpus corpus = new TileCorpus(tileCount);
+        tiles = corpus.getTiles();
+        tileManager = corpus.createTileManager();
+        tileManager.addOnInputEvaluatedListener(evaluatedTiles -> {
+            final CountDownLatch latch = firstResult.get();
+            if (latch != null) latch.countDown();
+        });
+    }
+
+    private String nextInput(List<String> inputs) {
+        final String input = inputs.get(nextInput % inputs.size());
+        nextInput++;
+        return input;
+    }
+
+    /**
+     * Checks every tile against one input, the way all tiles were checked before the search index existed.
+     */
+    @Benchmark
+    public int matchesSearch() {
+        final String input = nextInput(typedInputs);
+        int matches = 0;
+        for (Tile tile : tiles) {
+            if (tile.matchesSearch(input)) matches++;
+        }
+        return matches;
+    }
+
+    /**
+     * Same as {@link #matchesSearch()}, but with inputs that are only matched by the smart search, so that every tile
+     * has to run through it.
+     */
+    @Benchmark
+    public int smartSearch() {
+        final String input = nextInput(typedSmartInputs);
+        int matches = 0;
+        for (Tile tile : tiles) {
+            if (tile.matchesSearch(input)) matches++;
+        }
+        return matches;
+    }
+
+    /**
+     * The local tile search of the evaluation of an input, including the ranking of the tiles that are displayed.
+     */
+    @Benchmark
+    public void evaluate(Blackhole blackhole) {
+        evaluate(blackhole, nextInput(typedInputs));
+    }
+
+    /**
+     * Same as {@link #evaluate(Blackhole)}, but with inputs that contain typos, so that the fuzzy search is run on most
+     * inputs.
+     */
+    @Benchmark
+    public void evaluateWithTypos(Blackhole blackhole) {
+        evaluate(blackhole, nextInput(typedFuzzyInputs));
+    }
+
+    private void evaluate(Blackhole blackhole, String input) {
+        final List<Tile> matchingTiles = tileManager.findMatchingTiles(input);
+        blackhole.consume(matchingTiles.size());
+        for (int i = 0; i < Math.min(DISPLAYED_RESULTS, matchingTiles.size()); i++) {
+            blackhole.consume(matchingTiles.get(i));
+        }
+    }
+
+    /**
+     * The time from the user entering an input until the first results are passed to the result bars. The keystroke
+     * sequences contain more inputs than the result cache of the tile manager holds, so every input is searched.
+     */
+    @Benchmark
+    public void evaluateUserInput() throws InterruptedException {
+        evaluateUserInput(nextInput(typedInputs));
+    }
+
+    /**
+     * Same as {@link #evaluateUserInput()}, but for complete inputs that are entered again, like inputs recalled from the
+     * input history. These are answered from the result cache.
+     */
+    @Benchmark
+    public void recallUserInput() throws InterruptedException {
+        evaluateUserInput(KeystrokeSequences.SEARCHES[nextInput++ % KeystrokeSequences.SEARCHES.length]);
+    }
+
+    private void evaluateUserInput(String input) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        firstResult.set(latch);
+        tileManager.evaluateUserInput(input);
+        latch.await();
+    }
+}